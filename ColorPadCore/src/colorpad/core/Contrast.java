@@ -0,0 +1,191 @@
+package colorpad.core;
+
+import colorpad.core.converter.PrimitiveModelConverters;
+import colorpad.core.model.Rgb;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Relative luminance and contrast ratio defined by WCAG 2
+ * WCAG 2 定义的相对亮度和对比度
+ * <p>
+ * Colors are packed RGB ({@code 0xRRGGBB}). Linear values of sRGB components are looked up from table
+ * (see {@link PrimitiveModelConverters#srgbToLinear(int)}).
+ * The result of batch check for each pair is a set of flags ({@link #AA}, {@link #AA_LARGE},
+ * {@link #AAA}, {@link #AAA_LARGE}), a flag is set when the pair passes that level.
+ * </p>
+ */
+public final class Contrast {
+
+    /**
+     * 通过 AA 级别(普通文本，对比度 >= 4.5)
+     */
+    public static final byte AA = 1;
+    /**
+     * 通过 AA 级别(大号文本，对比度 >= 3)
+     */
+    public static final byte AA_LARGE = 1 << 1;
+    /**
+     * 通过 AAA 级别(普通文本，对比度 >= 7)
+     */
+    public static final byte AAA = 1 << 2;
+    /**
+     * 通过 AAA 级别(大号文本，对比度 >= 4.5)
+     */
+    public static final byte AAA_LARGE = 1 << 3;
+
+    /**
+     * 每个并行任务处理的前景色数量
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    private Contrast() {
+    }
+
+    /**
+     * 计算相对亮度
+     *
+     * @param rgb 颜色(打包的 RGB)
+     * @return 相对亮度(0 - 1)
+     */
+    public static double relativeLuminance(int rgb) {
+        return PrimitiveModelConverters.srgbToLinear(rgb >>> 16 & 255) * 0.2126d
+                + PrimitiveModelConverters.srgbToLinear(rgb >>> 8 & 255) * 0.7152d
+                + PrimitiveModelConverters.srgbToLinear(rgb & 255) * 0.0722d;
+    }
+
+    /**
+     * 计算相对亮度
+     *
+     * @param rgb 颜色
+     * @return 相对亮度(0 - 1)
+     */
+    public static double relativeLuminance(Rgb rgb) {
+        Objects.requireNonNull(rgb, "rgb cannot be null");
+        return relativeLuminance(PrimitiveModelConverters.packRgb(rgb));
+    }
+
+    /**
+     * 由两个相对亮度计算对比度(与顺序无关)
+     *
+     * @param luminance1 相对亮度
+     * @param luminance2 相对亮度
+     * @return 对比度(1 - 21)
+     */
+    public static double contrastRatio(double luminance1, double luminance2) {
+        return luminance1 > luminance2 ? (luminance1 + 0.05d) / (luminance2 + 0.05d)
+                : (luminance2 + 0.05d) / (luminance1 + 0.05d);
+    }
+
+    /**
+     * 计算两个颜色的对比度(与顺序无关)
+     *
+     * @param rgb1 颜色(打包的 RGB)
+     * @param rgb2 颜色(打包的 RGB)
+     * @return 对比度(1 - 21)
+     */
+    public static double contrastRatio(int rgb1, int rgb2) {
+        return contrastRatio(relativeLuminance(rgb1), relativeLuminance(rgb2));
+    }
+
+    /**
+     * 计算两个颜色的对比度(与顺序无关)
+     *
+     * @param rgb1 颜色
+     * @param rgb2 颜色
+     * @return 对比度(1 - 21)
+     */
+    public static double contrastRatio(Rgb rgb1, Rgb rgb2) {
+        return contrastRatio(relativeLuminance(rgb1), relativeLuminance(rgb2));
+    }
+
+    /**
+     * 获取对比度通过的级别
+     *
+     * @param ratio 对比度
+     * @return 通过的级别({@link #AA} 等标志的组合)
+     */
+    public static byte getLevels(double ratio) {
+        int levels = 0;
+        if (ratio >= 3d) levels |= AA_LARGE;
+        if (ratio >= 4.5d) levels |= AA | AAA_LARGE;
+        if (ratio >= 7d) levels |= AAA;
+        return (byte) levels;
+    }
+
+    /**
+     * 计算所有颜色的相对亮度
+     *
+     * @param colors 颜色(打包的 RGB)
+     * @return 相对亮度
+     */
+    public static double[] relativeLuminance(int[] colors) {
+        Objects.requireNonNull(colors, "colors cannot be null");
+        double[] luminance = new double[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            luminance[i] = relativeLuminance(colors[i]);
+        }
+        return luminance;
+    }
+
+    /**
+     * 批量计算每一对前景色和背景色的对比度和通过的级别(按前景色并行计算)
+     * <p>
+     * 第 i 个前景色和第 j 个背景色的结果位于 {@code i * background.length + j}
+     * </p>
+     *
+     * @param foreground 前景色(打包的 RGB)
+     * @param background 背景色(打包的 RGB)
+     * @param ratios     写入对比度的数组(为空时不写入)，长度至少为 foreground.length * background.length
+     * @param levels     写入通过级别的数组(为空时不写入)，长度至少为 foreground.length * background.length
+     * @throws IllegalArgumentException 结果数组长度不足，或颜色对的数量过多
+     * @see #getLevels(double)
+     */
+    public static void matrix(int[] foreground, int[] background, double[] ratios, byte[] levels) {
+        Objects.requireNonNull(foreground, "foreground cannot be null");
+        Objects.requireNonNull(background, "background cannot be null");
+        long required = (long) foreground.length * background.length;
+        if (required > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many pairs of colors: " + required);
+        if ((ratios != null && ratios.length < required) || (levels != null && levels.length < required))
+            throw new IllegalArgumentException("Length of result array is less than " + required);
+        double[] fore = relativeLuminance(foreground);
+        double[] back = foreground == background ? fore : relativeLuminance(background);
+        int blocks = (foreground.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream stream = IntStream.range(0, blocks);
+        if (blocks > 1) {
+            stream = stream.parallel();
+        }
+        stream.forEach(block -> {
+            int to = Math.min((block + 1) * BLOCK_SIZE, fore.length);
+            for (int i = block * BLOCK_SIZE; i < to; i++) {
+                int offset = i * back.length;
+                for (int j = 0; j < back.length; j++) {
+                    double ratio = contrastRatio(fore[i], back[j]);
+                    if (ratios != null) ratios[offset + j] = ratio;
+                    if (levels != null) levels[offset + j] = getLevels(ratio);
+                }
+            }
+        });
+    }
+
+    /**
+     * 批量计算每一对前景色和背景色通过的级别
+     *
+     * @param foreground 前景色(打包的 RGB)
+     * @param background 背景色(打包的 RGB)
+     * @return 通过的级别，第 i 个前景色和第 j 个背景色的结果位于 {@code i * background.length + j}
+     * @see #matrix(int[], int[], double[], byte[])
+     */
+    public static byte[] levels(int[] foreground, int[] background) {
+        Objects.requireNonNull(foreground, "foreground cannot be null");
+        Objects.requireNonNull(background, "background cannot be null");
+        long required = (long) foreground.length * background.length;
+        if (required > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many pairs of colors: " + required);
+        byte[] levels = new byte[(int) required];
+        matrix(foreground, background, null, levels);
+        return levels;
+    }
+}
@@ -112,33 +112,60 @@ public class Formula {
      * @return 计算得出的色相
      */
     public static double[] GetFormula(double hue, FormulaType type, Double angle) {
-        switch (type) {
-            case Monochromatic:
-                return Monochromatic(hue);
-            case Complementary:
-                return Complementary(hue);
-            case SplitComplementary:
-                if (angle != null) {
-                    return SplitComplementary(hue, Basic.getFixRange(angle, 90d, 179.99d));
-                } else {
-                    return SplitComplementary(hue);
-                }
-            case Analogous:
-                if (angle != null) {
-                    return Analogous(hue, Basic.getFixRange(angle, 1d, 90d));
-                } else {
-                    return Analogous(hue);
-                }
-            case Triadic:
-                return Triadic(hue);
-            case Tetradic:
-                if (angle != null) {
-                    return Tetradic(hue, Basic.getFixRange(angle, 1d, 90d));
-                } else {
-                    return Tetradic(hue);
-                }
-        }
-        return new double[0];
+        double[] hues = new double[GetSize(type)];
+        GetFormula(hue, type, angle, hues, 0);
+        return hues;
+    }
+
+    /**
+     * 按照指定的方式计算颜色方案，并将色相写入到给定的数组中(不创建新数组)
+     *
+     * @param hue    色相
+     * @param type   计算方式
+     * @param angle  主色调和第二色调的色相角度差值(仅对部分方案有效)
+     * @param target 写入色相的数组(剩余长度至少为 {@link #GetSize(FormulaType)})
+     * @param offset 开始写入的位置
+     * @return 写入的色相数量
+     */
+    public static int GetFormula(double hue, FormulaType type, Double angle, double[] target, int offset) {
+        return SchemeRegistry.get(type).fill(hue, angle, target, offset);
+    }
+
+    /**
+     * 获取配色方案包含的颜色数量
+     *
+     * @param type 计算方式
+     * @return 颜色数量
+     */
+    public static int GetSize(FormulaType type) {
+        return SchemeRegistry.get(type).size();
+    }
+
+    /**
+     * 获取配色方案实际使用的夹角(修正范围，或为空时使用默认夹角)
+     *
+     * @param type  计算方式
+     * @param angle 主色调和第二色调的色相角度差值(可以为空)
+     * @return 实际使用的夹角，方案不使用夹角时返回 0
+     */
+    public static double ResolveAngle(FormulaType type, Double angle) {
+        return SchemeRegistry.get(type).resolveAngle(angle);
+    }
+
+    /**
+     * 按照已注册的配色方案计算颜色方案
+     *
+     * @param hue    色相
+     * @param scheme 方案名(见 {@link SchemeRegistry})
+     * @param angle  主色调和第二色调的色相角度差值(仅对使用夹角的方案有效)
+     * @return 计算得出的色相
+     * @throws IllegalArgumentException 方案不存在
+     */
+    public static double[] GetFormula(double hue, String scheme, Double angle) {
+        SchemeDefinition definition = SchemeRegistry.get(scheme);
+        if (definition == null)
+            throw new IllegalArgumentException("Cannot find scheme: " + scheme);
+        return definition.evaluate(hue, angle);
     }
 
     /**
@@ -0,0 +1,109 @@
+package colorpad.core;
+
+import colorpad.core.converter.PrimitiveModelConverters;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk calculation of color formula, for large amount of base colors
+ * 批量计算配色方案，用于大量的基础颜色
+ * <p>
+ * Base colors are packed RGB ({@code 0xRRGGBB}). Results of the i-th base color are written to
+ * {@code [i * size, (i + 1) * size)} of the result arrays, where {@code size} is the size of scheme.
+ * </p>
+ *
+ * @see Formula
+ */
+public final class FormulaBatch {
+
+    /**
+     * 每个并行任务处理的基础颜色数量
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private FormulaBatch() {
+    }
+
+    /**
+     * 批量计算配色方案，写入色相和 RGB 结果(按基础颜色并行计算)
+     *
+     * @param colors 基础颜色(打包的 RGB)
+     * @param type   计算方式
+     * @param angle  主色调和第二色调的色相角度差值(仅对部分方案有效，可以为空)
+     * @param hues   写入色相的数组(为空时不写入)，长度至少为 colors.length * size
+     * @param rgb    写入 RGB 的数组(为空时不写入)，长度至少为 colors.length * size
+     * @throws IllegalArgumentException 结果数组长度不足
+     */
+    public static void generate(int[] colors, FormulaType type, Double angle, double[] hues, int[] rgb) {
+        Objects.requireNonNull(type, "type cannot be null");
+        generate(colors, SchemeRegistry.get(type), angle, hues, rgb);
+    }
+
+    /**
+     * 按照配色方案定义批量计算，写入色相和 RGB 结果(按基础颜色并行计算)
+     *
+     * @param colors     基础颜色(打包的 RGB)
+     * @param definition 配色方案定义
+     * @param angle      主色调和第二色调的色相角度差值(仅对使用夹角的方案有效，可以为空)
+     * @param hues       写入色相的数组(为空时不写入)，长度至少为 colors.length * size
+     * @param rgb        写入 RGB 的数组(为空时不写入)，长度至少为 colors.length * size
+     * @throws IllegalArgumentException 结果数组长度不足
+     * @see SchemeRegistry
+     */
+    public static void generate(int[] colors, SchemeDefinition definition, Double angle, double[] hues, int[] rgb) {
+        Objects.requireNonNull(colors, "colors cannot be null");
+        Objects.requireNonNull(definition, "definition cannot be null");
+        int size = definition.size();
+        long required = (long) colors.length * size;
+        if ((hues != null && hues.length < required) || (rgb != null && rgb.length < required))
+            throw new IllegalArgumentException("Length of result array is less than " + required);
+        double resolvedAngle = definition.resolveAngle(angle);
+        int blocks = (colors.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream stream = IntStream.range(0, blocks);
+        if (blocks > 1) {
+            stream = stream.parallel();
+        }
+        stream.forEach(block -> {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(from + BLOCK_SIZE, colors.length);
+            generateRange(colors, from, to, definition, resolvedAngle, size, hues, rgb);
+        });
+    }
+
+    /**
+     * 批量计算所有类型的配色方案(按 {@link FormulaType#ordinal()} 存放结果)
+     *
+     * @param colors 基础颜色(打包的 RGB)
+     * @param angle  主色调和第二色调的色相角度差值(仅对部分方案有效，可以为空)
+     * @param hues   每种类型写入色相的数组(为空或元素为空时不写入)
+     * @param rgb    每种类型写入 RGB 的数组(为空或元素为空时不写入)
+     */
+    public static void generateAll(int[] colors, Double angle, double[][] hues, int[][] rgb) {
+        for (FormulaType type : FormulaType.values()) {
+            int i = type.ordinal();
+            generate(colors, type, angle, hues != null ? hues[i] : null, rgb != null ? rgb[i] : null);
+        }
+    }
+
+    private static void generateRange(int[] colors, int from, int to, SchemeDefinition definition, double angle, int size,
+                                      double[] hues, int[] rgb) {
+        double[] hsb = new double[3];
+        double[] schemeHues = new double[size];
+        for (int i = from; i < to; i++) {
+            int color = colors[i];
+            PrimitiveModelConverters.RGB_TO_HSB_TRIPLET.convert(color >>> 16 & 255, color >>> 8 & 255, color & 255,
+                    hsb, 0);
+            definition.fillResolved(hsb[0], angle, schemeHues, 0);
+            int offset = i * size;
+            if (hues != null) {
+                System.arraycopy(schemeHues, 0, hues, offset, size);
+            }
+            if (rgb != null) {
+                for (int k = 0; k < size; k++) {
+                    rgb[offset + k] = PrimitiveModelConverters.hsbToRgb(schemeHues[k], hsb[1], hsb[2]);
+                }
+            }
+        }
+    }
+}
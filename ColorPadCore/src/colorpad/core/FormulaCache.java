@@ -0,0 +1,254 @@
+package colorpad.core;
+
+import colorpad.core.model.Hsb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded and thread-safe cache of color formula results
+ * 有容量上限且线程安全的配色方案缓存
+ * <p>
+ * HSB and angle are quantized by {@code step} before looking up, so colors in the same bucket share
+ * one {@link FormulaScheme} (calculated from the quantized values).
+ * The cache is split into segments by hash of key, each segment is locked independently.
+ * </p>
+ *
+ * @see FormulaScheme
+ */
+public class FormulaCache {
+
+    /**
+     * 缓存的淘汰策略
+     */
+    public enum EvictionPolicy {
+        /**
+         * 淘汰最久未使用的项
+         */
+        LRU,
+        /**
+         * 淘汰最早加入的项
+         */
+        FIFO
+    }
+
+    /**
+     * 默认的量化步长
+     */
+    public static final double DEFAULT_STEP = 0.01d;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int capacity;
+    private final double step;
+    private final EvictionPolicy policy;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 创建使用 LRU 策略和默认量化步长的缓存
+     *
+     * @param capacity 容量上限
+     */
+    public FormulaCache(int capacity) {
+        this(capacity, DEFAULT_STEP, EvictionPolicy.LRU);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param capacity 容量上限
+     * @param step     HSB 和夹角的量化步长(大于 0)
+     * @param policy   淘汰策略
+     */
+    public FormulaCache(int capacity, double step, EvictionPolicy policy) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must >= 1");
+        if (!(step > 0d))
+            throw new IllegalArgumentException("step must > 0");
+        this.capacity = capacity;
+        this.step = step;
+        this.policy = Objects.requireNonNull(policy, "policy cannot be null");
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, capacity / 64));
+        int segmentCapacity = (capacity + count - 1) / count;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentCapacity, policy == EvictionPolicy.LRU);
+        }
+    }
+
+    /**
+     * 获取配色方案，不存在时计算并放入缓存
+     *
+     * @param hsb   基础颜色
+     * @param type  计算方式
+     * @param angle 主色调和第二色调的色相角度差值(仅对部分方案有效，可以为空)
+     * @return 配色方案
+     */
+    public FormulaScheme get(Hsb hsb, FormulaType type, Double angle) {
+        Objects.requireNonNull(hsb, "hsb cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+        Key key = new Key(quantize(hsb.h()), quantize(hsb.s()), quantize(hsb.b()), type,
+                quantize(Formula.ResolveAngle(type, angle)));
+        Segment segment = segments[(key.hashCode() & 0x7fffffff) % segments.length];
+        FormulaScheme scheme;
+        synchronized (segment) {
+            scheme = segment.get(key);
+        }
+        if (scheme != null) {
+            hits.increment();
+            return scheme;
+        }
+        misses.increment();
+        // 在锁外计算，并发时可能重复计算同一个方案，但结果相同
+        Hsb base = Hsb.from(Math.min(key.h * step, 360d), Math.min(key.s * step, 100d), Math.min(key.b * step, 100d));
+        scheme = FormulaScheme.from(base, type, key.angle * step);
+        synchronized (segment) {
+            FormulaScheme exists = segment.putIfAbsent(key, scheme);
+            if (exists != null) {
+                scheme = exists;
+            }
+        }
+        return scheme;
+    }
+
+    private long quantize(double value) {
+        return Math.round(value / step);
+    }
+
+    /**
+     * 清空缓存(不重置统计数据)
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存的项数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 被淘汰的项数
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 命中率(0 - 1)，没有访问过时返回 0
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0d : (double) hit / total;
+    }
+
+    /**
+     * 重置统计数据
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FormulaCache: {size = %d, capacity = %d, hits = %d, misses = %d, evictions = %d}",
+                size(), capacity, getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+    private class Segment extends LinkedHashMap<Key, FormulaScheme> {
+        private static final long serialVersionUID = 1L;
+        private final int segmentCapacity;
+
+        Segment(int segmentCapacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.segmentCapacity = segmentCapacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, FormulaScheme> eldest) {
+            if (size() > segmentCapacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        final long h, s, b, angle;
+        final FormulaType type;
+
+        Key(long h, long s, long b, FormulaType type, long angle) {
+            this.h = h;
+            this.s = s;
+            this.b = b;
+            this.type = type;
+            this.angle = angle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return h == key.h && s == key.s && b == key.b && angle == key.angle && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = h;
+            hash = hash * 31 + s;
+            hash = hash * 31 + b;
+            hash = hash * 31 + angle;
+            hash = hash * 31 + type.ordinal();
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
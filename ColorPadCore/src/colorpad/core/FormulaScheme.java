@@ -0,0 +1,100 @@
+package colorpad.core;
+
+import colorpad.core.model.Hsb;
+import colorpad.core.model.Rgb;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable result of a color formula, including HSB and RGB of every color
+ * 不可变的配色方案结果，包含每个颜色的 HSB 和 RGB
+ *
+ * @see Formula
+ * @see FormulaCache
+ */
+public final class FormulaScheme {
+
+    private final FormulaType type;
+    private final double angle;
+    private final Hsb[] hsb;
+    private final Rgb[] rgb;
+
+    FormulaScheme(FormulaType type, double angle, Hsb[] hsb, Rgb[] rgb) {
+        this.type = type;
+        this.angle = angle;
+        this.hsb = hsb;
+        this.rgb = rgb;
+    }
+
+    /**
+     * 计算配色方案
+     *
+     * @param base  基础颜色
+     * @param type  计算方式
+     * @param angle 主色调和第二色调的色相角度差值(仅对部分方案有效，可以为空)
+     * @return 配色方案
+     */
+    public static FormulaScheme from(Hsb base, FormulaType type, Double angle) {
+        Objects.requireNonNull(base, "base cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+        Hsb[] hsb = Formula.GetFormula(base, type, angle);
+        Rgb[] rgb = new Rgb[hsb.length];
+        for (int i = 0; i < hsb.length; i++) {
+            rgb[i] = ModelsManager.convert(hsb[i], Rgb.class);
+        }
+        return new FormulaScheme(type, Formula.ResolveAngle(type, angle), hsb, rgb);
+    }
+
+    /**
+     * 计算方式
+     */
+    public FormulaType type() {
+        return type;
+    }
+
+    /**
+     * 实际使用的夹角(方案不使用夹角时为 0)
+     */
+    public double angle() {
+        return angle;
+    }
+
+    /**
+     * 方案中颜色的数量
+     */
+    public int size() {
+        return hsb.length;
+    }
+
+    public Hsb getHsb(int index) {
+        return hsb[index];
+    }
+
+    public Rgb getRgb(int index) {
+        return rgb[index];
+    }
+
+    /**
+     * 获取所有颜色的 HSB (返回副本)
+     *
+     * @return HSB 数组
+     */
+    public Hsb[] toHsbArray() {
+        return hsb.clone();
+    }
+
+    /**
+     * 获取所有颜色的 RGB (返回副本)
+     *
+     * @return RGB 数组
+     */
+    public Rgb[] toRgbArray() {
+        return rgb.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "FormulaScheme: " + type + " " + Arrays.toString(hsb);
+    }
+}
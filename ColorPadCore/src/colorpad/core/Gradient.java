@@ -0,0 +1,284 @@
+package colorpad.core;
+
+import colorpad.core.converter.PrimitiveModelConverters;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Gradient (color ramp) of several color stops, interpolated in a color model
+ * 在指定颜色模型中插值的多色渐变
+ * <p>
+ * Colors are packed RGB ({@code 0xRRGGBB}). Stops are distributed evenly, the first and the last item of a ramp
+ * are always the first and the last stop. Calculated ramps are kept in a bounded cache by (stops, model, length),
+ * so the same ramp can be shared by UI and batch export.
+ * </p>
+ */
+public final class Gradient {
+
+    /**
+     * 插值使用的颜色模型
+     */
+    public enum Model {
+        /**
+         * sRGB (Gamma 校正后的分量，与 {@link java.awt.GradientPaint} 相同)
+         */
+        RGB,
+        /**
+         * 线性 RGB (Gamma 展开后插值)
+         */
+        LINEAR_RGB,
+        /**
+         * HSB (色相沿较短的方向插值)
+         */
+        HSB,
+        /**
+         * CIE-Lab
+         */
+        LAB
+    }
+
+    /**
+     * 缓存的渐变数量上限
+     */
+    private static final int CACHE_CAPACITY = 128;
+
+    private static final Map<Key, int[]> cache = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    private Gradient() {
+    }
+
+    /**
+     * 获取渐变(使用缓存)
+     *
+     * @param model  插值使用的颜色模型
+     * @param length 渐变的颜色数量
+     * @param stops  渐变中的颜色(打包的 RGB)，至少一个
+     * @return 渐变的颜色(打包的 RGB，返回副本)
+     */
+    public static int[] ramp(Model model, int length, int... stops) {
+        return table(model, length, stops).clone();
+    }
+
+    /**
+     * 获取渐变(使用缓存)并写入数组
+     *
+     * @param model  插值使用的颜色模型
+     * @param stops  渐变中的颜色(打包的 RGB)，至少一个
+     * @param target 写入渐变的数组(剩余长度至少为 length)
+     * @param offset 开始写入的位置
+     * @param length 渐变的颜色数量
+     */
+    public static void ramp(Model model, int[] stops, int[] target, int offset, int length) {
+        System.arraycopy(table(model, length, stops), 0, target, offset, length);
+    }
+
+    /**
+     * 获取缓存的渐变，不存在时计算并放入缓存(返回的数组不能修改)
+     */
+    private static int[] table(Model model, int length, int[] stops) {
+        check(model, length, stops);
+        Key key = new Key(model, length, stops);
+        int[] table;
+        synchronized (cache) {
+            table = cache.get(key);
+        }
+        if (table == null) {
+            // 在锁外计算，并发时可能重复计算同一个渐变，但结果相同
+            table = compute(model, length, stops);
+            synchronized (cache) {
+                int[] exists = cache.putIfAbsent(key, table);
+                if (exists != null) {
+                    table = exists;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 计算渐变(不使用缓存)
+     *
+     * @param model  插值使用的颜色模型
+     * @param length 渐变的颜色数量
+     * @param stops  渐变中的颜色(打包的 RGB)，至少一个
+     * @return 渐变的颜色(打包的 RGB)
+     */
+    public static int[] compute(Model model, int length, int... stops) {
+        check(model, length, stops);
+        int[] result = new int[length];
+        if (length == 0) {
+            return result;
+        }
+        if (stops.length == 1 || length == 1) {
+            Arrays.fill(result, stops[0] & 0xffffff);
+            return result;
+        }
+        // 每个颜色转换为插值使用的分量
+        double[] components = new double[stops.length * 3];
+        for (int i = 0; i < stops.length; i++) {
+            toComponents(model, stops[i], components, i * 3);
+        }
+        if (model == Model.HSB) {
+            fixHues(components, stops.length);
+        }
+        double[] buffer = new double[6];
+        int segments = stops.length - 1;
+        for (int i = 0; i < length; i++) {
+            double t = (double) i * segments / (length - 1);
+            int k = Math.min((int) t, segments - 1);
+            double f = t - k;
+            int from = k * 3, to = from + 3;
+            for (int c = 0; c < 3; c++) {
+                buffer[c] = components[from + c] + (components[to + c] - components[from + c]) * f;
+            }
+            result[i] = fromComponents(model, buffer);
+        }
+        return result;
+    }
+
+    private static void check(Model model, int length, int[] stops) {
+        Objects.requireNonNull(model, "model cannot be null");
+        if (stops == null || stops.length == 0)
+            throw new IllegalArgumentException("stops cannot be empty");
+        if (length < 0)
+            throw new IllegalArgumentException("length must >= 0");
+    }
+
+    private static void toComponents(Model model, int rgb, double[] target, int offset) {
+        int r = rgb >>> 16 & 255, g = rgb >>> 8 & 255, b = rgb & 255;
+        switch (model) {
+            case LINEAR_RGB:
+                target[offset] = PrimitiveModelConverters.srgbToLinear(r);
+                target[offset + 1] = PrimitiveModelConverters.srgbToLinear(g);
+                target[offset + 2] = PrimitiveModelConverters.srgbToLinear(b);
+                break;
+            case HSB:
+                PrimitiveModelConverters.RGB_TO_HSB_TRIPLET.convert(r, g, b, target, offset);
+                break;
+            case LAB:
+                PrimitiveModelConverters.RGB_TO_XYZ_TRIPLET.convert(r, g, b, target, offset);
+                PrimitiveModelConverters.XYZ_TO_LAB.convert(target, offset, target, offset);
+                break;
+            default:
+                target[offset] = r;
+                target[offset + 1] = g;
+                target[offset + 2] = b;
+                break;
+        }
+    }
+
+    private static int fromComponents(Model model, double[] buffer) {
+        switch (model) {
+            case LINEAR_RGB:
+                return PrimitiveModelConverters.packRgb(linearToSrgb(buffer[0]), linearToSrgb(buffer[1]),
+                        linearToSrgb(buffer[2]));
+            case HSB:
+                return PrimitiveModelConverters.hsbToRgb(buffer[0], buffer[1], buffer[2]);
+            case LAB:
+                PrimitiveModelConverters.LAB_TO_XYZ.convert(buffer, 0, buffer, 3);
+                PrimitiveModelConverters.XYZ_TO_RGB.convert(buffer, 3, buffer, 0);
+                return PrimitiveModelConverters.packRgb(Basic.fRound(buffer[0]), Basic.fRound(buffer[1]),
+                        Basic.fRound(buffer[2]));
+            default:
+                return PrimitiveModelConverters.packRgb(Basic.fRound(buffer[0]), Basic.fRound(buffer[1]),
+                        Basic.fRound(buffer[2]));
+        }
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = value > 0.0031308d ? Math.pow(value, 1d / 2.4d) * 1.055d - 0.055d : value * 12.92d;
+        return Basic.getFixRange(Basic.fRound(v * 255d), 0, 255);
+    }
+
+    /**
+     * 修正相邻颜色的色相，使插值沿较短的方向进行(结果可能超出 0 - 360，转换时会取余)
+     * 无彩色(饱和度或亮度为 0)的颜色没有色相，使用相邻颜色的色相
+     */
+    private static void fixHues(double[] components, int count) {
+        boolean[] achromatic = new boolean[count];
+        int chromatic = -1;
+        for (int i = 0; i < count; i++) {
+            achromatic[i] = components[i * 3 + 1] == 0d || components[i * 3 + 2] == 0d;
+            if (!achromatic[i] && chromatic < 0) {
+                chromatic = i;
+            }
+        }
+        if (chromatic < 0) {
+            return;
+        }
+        double previous = components[chromatic * 3];
+        for (int i = 0; i < count; i++) {
+            int index = i * 3;
+            if (achromatic[i]) {
+                // 向后查找下一个有彩色的色相，没有时沿用前一个
+                double next = previous;
+                for (int j = i + 1; j < count; j++) {
+                    if (!achromatic[j]) {
+                        next = components[j * 3];
+                        break;
+                    }
+                }
+                components[index] = i < chromatic ? next : previous;
+            }
+            double delta = components[index] - previous;
+            delta -= Math.floor((delta + 180d) / 360d) * 360d;
+            components[index] = previous + delta;
+            previous = components[index];
+        }
+        // 保证色相不为负数
+        double min = 0d;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, components[i * 3]);
+        }
+        if (min < 0d) {
+            double shift = Math.ceil(-min / 360d) * 360d;
+            for (int i = 0; i < count; i++) {
+                components[i * 3] += shift;
+            }
+        }
+    }
+
+    /**
+     * 清空渐变的缓存
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static final class Key {
+        final Model model;
+        final int length;
+        final int[] stops;
+        final int hash;
+
+        Key(Model model, int length, int[] stops) {
+            this.model = model;
+            this.length = length;
+            this.stops = stops.clone();
+            hash = (Arrays.hashCode(this.stops) * 31 + length) * 31 + model.ordinal();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return model == key.model && length == key.length && Arrays.equals(stops, key.stops);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package colorpad.core;
+
+import java.util.Objects;
+
+/**
+ * Statistics of rectangular regions in an image, backed by summed-area tables (integral images)
+ * 图像中矩形区域的统计(基于积分图)
+ * <p>
+ * Pixels are packed RGB ({@code 0xRRGGBB}) stored by rows. A summed-area table is built for each channel once,
+ * then the sum / average of any region is calculated in O(1).
+ * Tables are stored as {@code int} and may overflow for large images, but the difference of them is still exact
+ * for any region whose sum is less than 2<sup>32</sup> (more than 16 million pixels).
+ * Median is not supported by summed-area table, see {@link #median(int[], int, int, int, int, int, int)}.
+ * </p>
+ * <p>Regions out of the image are clipped.</p>
+ */
+public final class RegionStatistics {
+
+    private final int width, height;
+    // (width + 1) * (height + 1)，第一行和第一列为 0
+    private final int[] sumR, sumG, sumB;
+
+    private RegionStatistics(int width, int height, int[] sumR, int[] sumG, int[] sumB) {
+        this.width = width;
+        this.height = height;
+        this.sumR = sumR;
+        this.sumG = sumG;
+        this.sumB = sumB;
+    }
+
+    /**
+     * 根据图像的像素建立积分图
+     *
+     * @param pixels 像素(打包的 RGB，按行存放)
+     * @param width  宽度
+     * @param height 高度
+     * @return 区域统计
+     */
+    public static RegionStatistics from(int[] pixels, int width, int height) {
+        checkImage(pixels, width, height);
+        int stride = width + 1;
+        int size = stride * (height + 1);
+        int[] sumR = new int[size], sumG = new int[size], sumB = new int[size];
+        for (int y = 0; y < height; y++) {
+            int rowR = 0, rowG = 0, rowB = 0;
+            int source = y * width;
+            int above = y * stride + 1, target = above + stride;
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[source + x];
+                rowR += rgb >>> 16 & 255;
+                rowG += rgb >>> 8 & 255;
+                rowB += rgb & 255;
+                sumR[target + x] = sumR[above + x] + rowR;
+                sumG[target + x] = sumG[above + x] + rowG;
+                sumB[target + x] = sumB[above + x] + rowB;
+            }
+        }
+        return new RegionStatistics(width, height, sumR, sumG, sumB);
+    }
+
+    private static void checkImage(int[] pixels, int width, int height) {
+        Objects.requireNonNull(pixels, "pixels cannot be null");
+        if (width < 0 || height < 0 || pixels.length < (long) width * height)
+            throw new IllegalArgumentException("Size of image not match the pixels");
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 计算区域中每个通道的和
+     *
+     * @param x      区域左上角的横坐标
+     * @param y      区域左上角的纵坐标
+     * @param w      区域宽度
+     * @param h      区域高度
+     * @param target 写入 R、G、B 的和的数组(长度至少为 3)
+     * @return 区域中(裁剪后)的像素数量
+     */
+    public int sum(int x, int y, int w, int h, long[] target) {
+        int x0 = Math.max(x, 0), y0 = Math.max(y, 0);
+        int x1 = Math.min(x + w, width), y1 = Math.min(y + h, height);
+        if (x0 >= x1 || y0 >= y1) {
+            target[0] = target[1] = target[2] = 0;
+            return 0;
+        }
+        int stride = width + 1;
+        int a = y0 * stride + x0, b = y0 * stride + x1, c = y1 * stride + x0, d = y1 * stride + x1;
+        // 使用 int 的溢出运算，结果作为无符号数
+        target[0] = (sumR[d] - sumR[b] - sumR[c] + sumR[a]) & 0xffffffffL;
+        target[1] = (sumG[d] - sumG[b] - sumG[c] + sumG[a]) & 0xffffffffL;
+        target[2] = (sumB[d] - sumB[b] - sumB[c] + sumB[a]) & 0xffffffffL;
+        return (x1 - x0) * (y1 - y0);
+    }
+
+    /**
+     * 计算区域的平均颜色
+     *
+     * @param x 区域左上角的横坐标
+     * @param y 区域左上角的纵坐标
+     * @param w 区域宽度
+     * @param h 区域高度
+     * @return 平均颜色(打包的 RGB)
+     * @throws IllegalArgumentException 区域(裁剪后)为空
+     */
+    public int average(int x, int y, int w, int h) {
+        long[] sums = new long[3];
+        int count = sum(x, y, w, h, sums);
+        if (count == 0)
+            throw new IllegalArgumentException("Region is empty");
+        return packAverage(sums[0], sums[1], sums[2], count);
+    }
+
+    /**
+     * 计算以某个像素为中心的正方形区域的平均颜色
+     *
+     * @param centerX 中心的横坐标
+     * @param centerY 中心的纵坐标
+     * @param size    边长(奇数)
+     * @return 平均颜色(打包的 RGB)
+     */
+    public int averageAround(int centerX, int centerY, int size) {
+        return average(centerX - size / 2, centerY - size / 2, size, size);
+    }
+
+    private static int packAverage(long r, long g, long b, long count) {
+        long half = count / 2;
+        return (int) ((r + half) / count) << 16 | (int) ((g + half) / count) << 8 | (int) ((b + half) / count);
+    }
+
+    /**
+     * 直接计算区域的平均颜色(不建立积分图，适合只计算少量的小区域)
+     *
+     * @param pixels 像素(打包的 RGB，按行存放)
+     * @param width  图像宽度
+     * @param height 图像高度
+     * @param x      区域左上角的横坐标
+     * @param y      区域左上角的纵坐标
+     * @param w      区域宽度
+     * @param h      区域高度
+     * @return 平均颜色(打包的 RGB)
+     * @throws IllegalArgumentException 区域(裁剪后)为空
+     */
+    public static int average(int[] pixels, int width, int height, int x, int y, int w, int h) {
+        checkImage(pixels, width, height);
+        int x0 = Math.max(x, 0), y0 = Math.max(y, 0);
+        int x1 = Math.min(x + w, width), y1 = Math.min(y + h, height);
+        if (x0 >= x1 || y0 >= y1)
+            throw new IllegalArgumentException("Region is empty");
+        long r = 0, g = 0, b = 0;
+        for (int py = y0; py < y1; py++) {
+            for (int px = x0; px < x1; px++) {
+                int rgb = pixels[py * width + px];
+                r += rgb >>> 16 & 255;
+                g += rgb >>> 8 & 255;
+                b += rgb & 255;
+            }
+        }
+        return packAverage(r, g, b, (long) (x1 - x0) * (y1 - y0));
+    }
+
+    /**
+     * 计算区域中每个通道的中位数(偶数个像素时取较小的一个)
+     *
+     * @param pixels 像素(打包的 RGB，按行存放)
+     * @param width  图像宽度
+     * @param height 图像高度
+     * @param x      区域左上角的横坐标
+     * @param y      区域左上角的纵坐标
+     * @param w      区域宽度
+     * @param h      区域高度
+     * @return 每个通道的中位数(打包的 RGB)
+     * @throws IllegalArgumentException 区域(裁剪后)为空
+     */
+    public static int median(int[] pixels, int width, int height, int x, int y, int w, int h) {
+        checkImage(pixels, width, height);
+        int x0 = Math.max(x, 0), y0 = Math.max(y, 0);
+        int x1 = Math.min(x + w, width), y1 = Math.min(y + h, height);
+        if (x0 >= x1 || y0 >= y1)
+            throw new IllegalArgumentException("Region is empty");
+        // 每个通道的直方图
+        int[] histogram = new int[256 * 3];
+        for (int py = y0; py < y1; py++) {
+            for (int px = x0; px < x1; px++) {
+                int rgb = pixels[py * width + px];
+                histogram[rgb >>> 16 & 255]++;
+                histogram[256 + (rgb >>> 8 & 255)]++;
+                histogram[512 + (rgb & 255)]++;
+            }
+        }
+        long rank = ((long) (x1 - x0) * (y1 - y0) - 1) / 2;
+        return medianOf(histogram, 0, rank) << 16 | medianOf(histogram, 256, rank) << 8 | medianOf(histogram, 512, rank);
+    }
+
+    private static int medianOf(int[] histogram, int offset, long rank) {
+        long count = 0;
+        for (int i = 0; i < 256; i++) {
+            count += histogram[offset + i];
+            if (count > rank) {
+                return i;
+            }
+        }
+        return 255;
+    }
+}
@@ -0,0 +1,321 @@
+package colorpad.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Definition of a color formula (scheme) described by data
+ * 以数据描述的配色方案定义
+ * <p>
+ * The i-th hue of scheme is {@code hue + offset[i] + factor[i] * angle} wrapped into [0, 360),
+ * so negative offsets and angles are allowed.
+ * An item with offset 0 and factor 0 always keeps the base hue unchanged.
+ * The angle is only used when the definition has an angle parameter (default value and clamp range).
+ * </p>
+ * <p>Text form ({@link #parse(String, String)}):</p>
+ * <pre>
+ * 0, a, 360-a @ 150 [90, 179.99]
+ * </pre>
+ * <p>
+ * Items are separated by {@code ,}, each item is a number, {@code a} (angle), or their sum / difference
+ * such as {@code 180+a}, {@code 360-2a}. The optional part after {@code @} is the default angle and
+ * the clamp range of angle.
+ * </p>
+ *
+ * @see SchemeRegistry
+ * @see Formula
+ */
+public final class SchemeDefinition {
+
+    private final String name;
+    private final double[] offsets;
+    private final double[] factors;
+    private final boolean[] identity;
+    private final boolean hasAngle;
+    private final double defaultAngle, minAngle, maxAngle;
+
+    private SchemeDefinition(String name, double[] offsets, double[] factors, boolean hasAngle,
+                             double defaultAngle, double minAngle, double maxAngle) {
+        this.name = name;
+        this.offsets = offsets;
+        this.factors = factors;
+        this.hasAngle = hasAngle;
+        this.defaultAngle = defaultAngle;
+        this.minAngle = minAngle;
+        this.maxAngle = maxAngle;
+        identity = new boolean[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            identity[i] = offsets[i] == 0d && factors[i] == 0d;
+        }
+    }
+
+    /**
+     * 创建不使用夹角的配色方案定义
+     *
+     * @param name    方案名
+     * @param offsets 每个颜色相对于主色调的色相偏移
+     * @return 配色方案定义
+     */
+    public static SchemeDefinition of(String name, double... offsets) {
+        checkName(name);
+        if (offsets == null || offsets.length == 0)
+            throw new IllegalArgumentException("offsets cannot be empty");
+        return new SchemeDefinition(name, offsets.clone(), new double[offsets.length], false, 0d, 0d, 0d);
+    }
+
+    /**
+     * 创建使用夹角的配色方案定义
+     *
+     * @param name         方案名
+     * @param offsets      每个颜色相对于主色调的色相偏移
+     * @param factors      每个颜色的夹角系数(与 offsets 长度相同)
+     * @param defaultAngle 默认夹角
+     * @param minAngle     夹角最小值
+     * @param maxAngle     夹角最大值
+     * @return 配色方案定义
+     */
+    public static SchemeDefinition of(String name, double[] offsets, double[] factors,
+                                      double defaultAngle, double minAngle, double maxAngle) {
+        checkName(name);
+        if (offsets == null || offsets.length == 0)
+            throw new IllegalArgumentException("offsets cannot be empty");
+        if (factors == null || factors.length != offsets.length)
+            throw new IllegalArgumentException("Length of factors and offsets not match");
+        if (minAngle > maxAngle)
+            throw new IllegalArgumentException("minAngle must <= maxAngle");
+        return new SchemeDefinition(name, offsets.clone(), factors.clone(), true,
+                Basic.getFixRange(defaultAngle, minAngle, maxAngle), minAngle, maxAngle);
+    }
+
+    /**
+     * 从文本解析配色方案定义
+     *
+     * @param name 方案名
+     * @param text 定义文本，例如 {@code 0, a, 360-a @ 150 [90, 179.99]}
+     * @return 配色方案定义
+     * @throws IllegalArgumentException 无法解析
+     */
+    public static SchemeDefinition parse(String name, String text) {
+        if (Basic.isEmpty(text))
+            throw new IllegalArgumentException("Definition of scheme \"" + name + "\" is empty");
+        String items = text;
+        String angleText = null;
+        int at = text.indexOf('@');
+        if (at >= 0) {
+            items = text.substring(0, at);
+            angleText = text.substring(at + 1).trim();
+        }
+        String[] parts = items.split(",");
+        double[] offsets = new double[parts.length];
+        double[] factors = new double[parts.length];
+        boolean useAngle = false;
+        for (int i = 0; i < parts.length; i++) {
+            parseItem(parts[i], offsets, factors, i);
+            useAngle |= factors[i] != 0d;
+        }
+        if (angleText == null) {
+            if (useAngle)
+                throw new IllegalArgumentException("Missing angle of scheme \"" + name + "\"");
+            return of(name, offsets);
+        }
+        // 默认夹角 [最小值, 最大值]
+        int open = angleText.indexOf('[');
+        int close = angleText.lastIndexOf(']');
+        try {
+            double defaultAngle, min = 0d, max = 360d;
+            if (open >= 0) {
+                if (close < open) throw new IllegalArgumentException("Missing \"]\" in angle range");
+                defaultAngle = Double.parseDouble(angleText.substring(0, open).trim());
+                String[] range = angleText.substring(open + 1, close).split(",");
+                if (range.length != 2) throw new IllegalArgumentException("Angle range must have 2 values");
+                min = Double.parseDouble(range[0].trim());
+                max = Double.parseDouble(range[1].trim());
+            } else {
+                defaultAngle = Double.parseDouble(angleText);
+            }
+            return of(name, offsets, factors, defaultAngle, min, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot parse angle of scheme \"" + name + "\": " + angleText, e);
+        }
+    }
+
+    private static void parseItem(String item, double[] offsets, double[] factors, int index) {
+        String s = item.replace(" ", "");
+        if (s.isEmpty()) throw new IllegalArgumentException("Empty item in scheme definition");
+        double offset = 0d, factor = 0d;
+        int start = 0;
+        // 按 + - 拆分为若干项
+        for (int i = 1; i <= s.length(); i++) {
+            if (i == s.length() || s.charAt(i) == '+' || s.charAt(i) == '-') {
+                String term = s.substring(start, i);
+                if (term.endsWith("a")) {
+                    String k = term.substring(0, term.length() - 1);
+                    if (k.endsWith("*")) k = k.substring(0, k.length() - 1);
+                    if (k.isEmpty() || k.equals("+")) {
+                        factor += 1d;
+                    } else if (k.equals("-")) {
+                        factor -= 1d;
+                    } else {
+                        factor += parseNumber(k, item);
+                    }
+                } else {
+                    offset += parseNumber(term, item);
+                }
+                start = i;
+            }
+        }
+        offsets[index] = offset;
+        factors[index] = factor;
+    }
+
+    private static double parseNumber(String s, String item) {
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot parse item of scheme: " + item, e);
+        }
+    }
+
+    private static void checkName(String name) {
+        if (Basic.isEmpty(name))
+            throw new IllegalArgumentException("name cannot be empty");
+    }
+
+    /**
+     * 方案名
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 方案中颜色的数量
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * 是否使用夹角
+     */
+    public boolean hasAngle() {
+        return hasAngle;
+    }
+
+    public double defaultAngle() {
+        return defaultAngle;
+    }
+
+    public double minAngle() {
+        return minAngle;
+    }
+
+    public double maxAngle() {
+        return maxAngle;
+    }
+
+    /**
+     * 获取实际使用的夹角(修正范围，或为空时使用默认夹角)
+     *
+     * @param angle 夹角(可以为空)
+     * @return 实际使用的夹角，不使用夹角时返回 0
+     */
+    public double resolveAngle(Double angle) {
+        if (!hasAngle) {
+            return 0d;
+        }
+        return angle != null ? Basic.getFixRange(angle, minAngle, maxAngle) : defaultAngle;
+    }
+
+    /**
+     * 计算色相并写入数组
+     *
+     * @param hue    主色调的色相
+     * @param angle  夹角(可以为空)
+     * @param target 写入色相的数组(剩余长度至少为 {@link #size()})
+     * @param offset 开始写入的位置
+     * @return 写入的色相数量
+     */
+    public int fill(double hue, Double angle, double[] target, int offset) {
+        return fillResolved(hue, resolveAngle(angle), target, offset);
+    }
+
+    /**
+     * 使用已经修正的夹角计算色相并写入数组
+     *
+     * @param hue    主色调的色相
+     * @param angle  已经修正的夹角(见 {@link #resolveAngle(Double)})
+     * @param target 写入色相的数组(剩余长度至少为 {@link #size()})
+     * @param offset 开始写入的位置
+     * @return 写入的色相数量
+     */
+    public int fillResolved(double hue, double angle, double[] target, int offset) {
+        for (int i = 0; i < offsets.length; i++) {
+            target[offset + i] = identity[i] ? hue : wrapHue(hue + offsets[i] + factors[i] * angle);
+        }
+        return offsets.length;
+    }
+
+    /**
+     * 把色相转换到 [0, 360) 范围内
+     */
+    private static double wrapHue(double hue) {
+        double wrapped = ((hue % 360d) + 360d) % 360d;
+        // 非常接近 0 的负数加上 360 后会舍入为 360
+        return wrapped == 360d ? 0d : wrapped;
+    }
+
+    /**
+     * 计算色相
+     *
+     * @param hue   主色调的色相
+     * @param angle 夹角(可以为空)
+     * @return 计算得出的色相
+     */
+    public double[] evaluate(double hue, Double angle) {
+        double[] hues = new double[offsets.length];
+        fill(hue, angle, hues, 0);
+        return hues;
+    }
+
+    @Override
+    public String toString() {
+        List<String> items = new ArrayList<>(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            String item = offsets[i] == 0d && factors[i] != 0d ? "" : formatNumber(offsets[i]);
+            if (factors[i] != 0d) {
+                double k = Math.abs(factors[i]);
+                String sign = factors[i] < 0 ? "-" : item.isEmpty() ? "" : "+";
+                item += sign + (k == 1d ? "" : formatNumber(k)) + "a";
+            }
+            items.add(item);
+        }
+        String text = String.join(", ", items);
+        if (hasAngle) {
+            text += " @ " + formatNumber(defaultAngle) + " [" + formatNumber(minAngle) + ", " + formatNumber(maxAngle) + "]";
+        }
+        return text;
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SchemeDefinition)) return false;
+        SchemeDefinition that = (SchemeDefinition) o;
+        return name.equals(that.name) && hasAngle == that.hasAngle
+                && Arrays.equals(offsets, that.offsets) && Arrays.equals(factors, that.factors)
+                && Double.compare(defaultAngle, that.defaultAngle) == 0
+                && Double.compare(minAngle, that.minAngle) == 0 && Double.compare(maxAngle, that.maxAngle) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, hasAngle, defaultAngle, minAngle, maxAngle);
+    }
+}
@@ -0,0 +1,190 @@
+package colorpad.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of color formula (scheme) definitions
+ * 配色方案定义的注册表
+ * <p>
+ * Built-in schemes of {@link FormulaType} are registered by their names and cannot be replaced.
+ * Custom schemes can be registered at runtime or loaded from a file of {@code name = definition} lines
+ * (INI style, lines start with {@code ;} or {@code #} and section headers are ignored).
+ * </p>
+ *
+ * @see SchemeDefinition
+ */
+public final class SchemeRegistry {
+
+    private static final SchemeDefinition[] BUILT_IN = new SchemeDefinition[FormulaType.values().length];
+    private static final Map<String, SchemeDefinition> REGISTERED_SCHEMES = new ConcurrentHashMap<>();
+
+    private SchemeRegistry() {
+    }
+
+    static {
+        // 内置的配色方案
+        builtIn(FormulaType.Monochromatic, SchemeDefinition.of("Monochromatic", 0d));
+        builtIn(FormulaType.Complementary, SchemeDefinition.of("Complementary", 0d, 180d));
+        builtIn(FormulaType.SplitComplementary, SchemeDefinition.of("SplitComplementary",
+                new double[]{0d, 0d, 360d}, new double[]{0d, 1d, -1d}, 150d, 90d, 179.99d));
+        builtIn(FormulaType.Analogous, SchemeDefinition.of("Analogous",
+                new double[]{0d, 0d, 360d}, new double[]{0d, 1d, -1d}, 60d, 1d, 90d));
+        builtIn(FormulaType.Triadic, SchemeDefinition.of("Triadic", 0d, 120d, 240d));
+        builtIn(FormulaType.Tetradic, SchemeDefinition.of("Tetradic",
+                new double[]{0d, 0d, 180d, 180d}, new double[]{0d, 1d, 0d, 1d}, 60d, 1d, 90d));
+    }
+
+    private static void builtIn(FormulaType type, SchemeDefinition definition) {
+        BUILT_IN[type.ordinal()] = definition;
+        REGISTERED_SCHEMES.put(type.name(), definition);
+    }
+
+    /**
+     * 获取内置配色方案的定义
+     *
+     * @param type 计算方式
+     * @return 配色方案定义
+     */
+    public static SchemeDefinition get(FormulaType type) {
+        return BUILT_IN[type.ordinal()];
+    }
+
+    /**
+     * 按名字获取配色方案的定义
+     *
+     * @param name 方案名
+     * @return 配色方案定义，不存在时返回 null
+     */
+    public static SchemeDefinition get(String name) {
+        return name == null ? null : REGISTERED_SCHEMES.get(name);
+    }
+
+    /**
+     * 注册(或替换同名的)配色方案
+     *
+     * @param definition 配色方案定义
+     * @throws IllegalArgumentException 与内置的配色方案重名，或计算出的色相不在 [0, 360) 范围内
+     */
+    public static void register(SchemeDefinition definition) {
+        Objects.requireNonNull(definition, "definition cannot be null");
+        if (isBuiltIn(definition.name()))
+            throw new IllegalArgumentException("Cannot replace built-in scheme: " + definition.name());
+        checkHues(definition);
+        REGISTERED_SCHEMES.put(definition.name(), definition);
+    }
+
+    /**
+     * 检查配色方案在色相和夹角的边界上计算出的色相都在 [0, 360) 范围内(例如偏移量不能是无穷大)
+     *
+     * @param definition 配色方案定义
+     * @throws IllegalArgumentException 色相超出范围
+     */
+    private static void checkHues(SchemeDefinition definition) {
+        double[] hues = {0d, Math.nextDown(360d)};
+        double[] angles = definition.hasAngle()
+                ? new double[]{definition.minAngle(), definition.defaultAngle(), definition.maxAngle()}
+                : new double[]{0d};
+        double[] result = new double[definition.size()];
+        for (double hue : hues) {
+            for (double angle : angles) {
+                definition.fillResolved(hue, angle, result, 0);
+                for (double value : result) {
+                    if (!(value >= 0d && value < 360d))
+                        throw new IllegalArgumentException("Scheme \"" + definition.name()
+                                + "\" produces hue out of range [0, 360): " + value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 移除已注册的配色方案(内置方案不能移除)
+     *
+     * @param name 方案名
+     * @return 成功移除返回 true
+     */
+    public static boolean unregister(String name) {
+        if (name == null || isBuiltIn(name)) {
+            return false;
+        }
+        return REGISTERED_SCHEMES.remove(name) != null;
+    }
+
+    /**
+     * 获取所有已注册的方案名(包含内置方案)
+     *
+     * @return 方案名
+     */
+    public static String[] names() {
+        return REGISTERED_SCHEMES.keySet().toArray(new String[0]);
+    }
+
+    private static boolean isBuiltIn(String name) {
+        for (SchemeDefinition definition : BUILT_IN) {
+            if (definition.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从文本中读取并注册配色方案，每行一个 {@code 方案名 = 定义}
+     *
+     * @param reader 文本
+     * @return 读取到的配色方案
+     * @throws IOException              读取失败
+     * @throws IllegalArgumentException 无法解析或与内置方案重名
+     * @see SchemeDefinition#parse(String, String)
+     */
+    public static List<SchemeDefinition> load(Reader reader) throws IOException {
+        List<SchemeDefinition> definitions = new ArrayList<>();
+        BufferedReader buffered = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = buffered.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == ';' || line.charAt(0) == '#' || line.charAt(0) == '[') {
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException("Cannot parse line of scheme: " + line);
+            String name = line.substring(0, eq).trim();
+            if (isBuiltIn(name))
+                throw new IllegalArgumentException("Cannot replace built-in scheme: " + name);
+            SchemeDefinition definition = SchemeDefinition.parse(name, line.substring(eq + 1).trim());
+            checkHues(definition);
+            definitions.add(definition);
+        }
+        // 全部解析成功后才注册
+        for (SchemeDefinition definition : definitions) {
+            register(definition);
+        }
+        return definitions;
+    }
+
+    /**
+     * 从文件中读取并注册配色方案(UTF-8)
+     *
+     * @param path 文件路径
+     * @return 读取到的配色方案
+     * @throws IOException              读取失败
+     * @throws IllegalArgumentException 无法解析或与内置方案重名
+     * @see #load(Reader)
+     */
+    public static List<SchemeDefinition> loadFromFile(String path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+}
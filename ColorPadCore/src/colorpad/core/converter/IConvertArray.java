@@ -0,0 +1,21 @@
+package colorpad.core.converter;
+
+/**
+ * Primitive convert method, from components in a double array to another double array
+ * <p>在 double 数组之间转换颜色分量的基本类型转换方法（无装箱），适合批量处理</p>
+ *
+ * @see IConvertFromTo
+ */
+@FunctionalInterface
+public interface IConvertArray {
+    /**
+     * Convert components of source and write the result to target array.
+     * Source and target can be the same array if the ranges do not overlap.
+     *
+     * @param source       Array of source components
+     * @param sourceOffset Offset of the first source component
+     * @param target       Array to write target components
+     * @param targetOffset Offset of the first element to write
+     */
+    void convert(double[] source, int sourceOffset, double[] target, int targetOffset);
+}
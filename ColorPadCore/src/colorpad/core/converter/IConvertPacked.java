@@ -0,0 +1,19 @@
+package colorpad.core.converter;
+
+/**
+ * Primitive convert method, from a packed integer to another packed integer
+ * <p>从一个打包的整数转换到另一个打包的整数的基本类型转换方法（无装箱）</p>
+ * <p>Each component takes 8 bits, e.g. RGB is packed as {@code 0xRRGGBB}</p>
+ *
+ * @see IConvertFromTo
+ */
+@FunctionalInterface
+public interface IConvertPacked {
+    /**
+     * Convert to target.
+     *
+     * @param source Packed components of source
+     * @return Packed components of target
+     */
+    int convert(int source);
+}
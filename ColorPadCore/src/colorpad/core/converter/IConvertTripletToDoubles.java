@@ -0,0 +1,21 @@
+package colorpad.core.converter;
+
+/**
+ * Primitive convert method, from three integer components to three decimal components
+ * <p>从三个整数分量转换到三个小数分量的基本类型转换方法（无装箱）</p>
+ *
+ * @see IConvertFromTo
+ */
+@FunctionalInterface
+public interface IConvertTripletToDoubles {
+    /**
+     * Convert three integer components and write the result to target array.
+     *
+     * @param a            First component of source
+     * @param b            Second component of source
+     * @param c            Third component of source
+     * @param target       Array to write result (3 elements)
+     * @param targetOffset Offset of the first element to write
+     */
+    void convert(int a, int b, int c, double[] target, int targetOffset);
+}
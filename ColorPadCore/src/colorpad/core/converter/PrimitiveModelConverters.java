@@ -0,0 +1,505 @@
+package colorpad.core.converter;
+
+import colorpad.core.Basic;
+import colorpad.core.model.Rgb;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Primitive implementation of color model conversion algorithm, without boxing and model objects.
+ * <p>颜色模型转换算法的基本类型实现，不创建颜色模型对象，适合批量转换。</p>
+ * <p>
+ * Every constant of {@link DefaultModelConverters} has a {@link IConvertArray} with the same name here,
+ * components in array are in the same order and range as the color model (e.g. RGB is r, g, b in 0 - 255).
+ * Some conversions also provide {@link IConvertTripletToDoubles} (suffix {@code _TRIPLET})
+ * or {@link IConvertPacked} (suffix {@code _PACKED}).
+ * </p>
+ * <p>Packed formats: RGB {@code 0xRRGGBB}, YCrCb {@code 0xYYRRBB}, CMYK {@code 0xCCMMYYKK}</p>
+ *
+ * @see DefaultModelConverters
+ */
+public final class PrimitiveModelConverters {
+
+    private PrimitiveModelConverters() {
+    }
+
+    // HSB - RGB
+    public static final IConvertTripletToDoubles RGB_TO_HSB_TRIPLET = PrimitiveModelConverters::rgbToHsb;
+
+    public static final IConvertArray RGB_TO_HSB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            rgbToHsb((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2],
+                    target, targetOffset);
+
+    public static final IConvertArray HSB_TO_RGB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(hsbToRgb(source[sourceOffset], source[sourceOffset + 1], source[sourceOffset + 2]),
+                    target, targetOffset);
+
+    // HSL - RGB
+    public static final IConvertTripletToDoubles RGB_TO_HSL_TRIPLET = PrimitiveModelConverters::rgbToHsl;
+
+    public static final IConvertArray RGB_TO_HSL = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            rgbToHsl((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2],
+                    target, targetOffset);
+
+    public static final IConvertArray HSL_TO_RGB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(hslToRgb(source[sourceOffset], source[sourceOffset + 1], source[sourceOffset + 2]),
+                    target, targetOffset);
+
+    // CMYK - RGB
+    public static final IConvertPacked RGB_TO_CMYK_PACKED = (int rgb) -> rgbToCmyk(rgb >>> 16 & 255, rgb >>> 8 & 255, rgb & 255);
+
+    public static final IConvertArray RGB_TO_CMYK = (double[] source, int sourceOffset, double[] target, int targetOffset) -> {
+        int cmyk = rgbToCmyk((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2]);
+        target[targetOffset] = cmyk >>> 24;
+        target[targetOffset + 1] = cmyk >>> 16 & 255;
+        target[targetOffset + 2] = cmyk >>> 8 & 255;
+        target[targetOffset + 3] = cmyk & 255;
+    };
+
+    public static final IConvertPacked CMYK_TO_RGB_PACKED = (int cmyk) ->
+            cmykToRgb(cmyk >>> 24, cmyk >>> 16 & 255, cmyk >>> 8 & 255, cmyk & 255);
+
+    public static final IConvertArray CMYK_TO_RGB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(cmykToRgb((int) source[sourceOffset], (int) source[sourceOffset + 1],
+                    (int) source[sourceOffset + 2], (int) source[sourceOffset + 3]), target, targetOffset);
+
+    // YCrCb - RGB
+    public static final IConvertPacked RGB_TO_Y_CR_CB_PACKED = (int rgb) -> rgbToYCrCb(rgb >>> 16 & 255, rgb >>> 8 & 255, rgb & 255);
+
+    public static final IConvertArray RGB_TO_Y_CR_CB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(rgbToYCrCb((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2]),
+                    target, targetOffset);
+
+    public static final IConvertPacked Y_CR_CB_TO_RGB_PACKED = (int yCrCb) ->
+            yCrCbToRgb(yCrCb >>> 16 & 255, yCrCb >>> 8 & 255, yCrCb & 255);
+
+    public static final IConvertArray Y_CR_CB_TO_RGB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(yCrCbToRgb((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2]),
+                    target, targetOffset);
+
+    // XYZ - RGB
+    public static final IConvertTripletToDoubles RGB_TO_XYZ_TRIPLET = PrimitiveModelConverters::rgbToXyz;
+
+    public static final IConvertArray RGB_TO_XYZ = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            rgbToXyz((int) source[sourceOffset], (int) source[sourceOffset + 1], (int) source[sourceOffset + 2],
+                    target, targetOffset);
+
+    public static final IConvertArray XYZ_TO_RGB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            unpack(xyzToRgb(source[sourceOffset], source[sourceOffset + 1], source[sourceOffset + 2]),
+                    target, targetOffset);
+
+    // CIE-Lab - XYZ
+    public static final IConvertArray XYZ_TO_LAB = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            xyzToLab(source[sourceOffset], source[sourceOffset + 1], source[sourceOffset + 2], target, targetOffset);
+
+    public static final IConvertArray LAB_TO_XYZ = (double[] source, int sourceOffset, double[] target, int targetOffset) ->
+            labToXyz(source[sourceOffset], source[sourceOffset + 1], source[sourceOffset + 2], target, targetOffset);
+
+    /*
+        Adapters 适配器
+     */
+
+    /**
+     * Adapt a primitive converter to {@link IConvertFromTo}
+     * <p>将基本类型的转换器适配为 {@link IConvertFromTo}</p>
+     *
+     * @param <TSource>    Source type
+     * @param <TTarget>    Target type
+     * @param converter    Primitive converter
+     * @param targetLength Amount of target components
+     * @param toArray      Extract components from source model
+     * @param fromArray    Create target model from components
+     * @return Converter of models
+     */
+    public static <TSource, TTarget> IConvertFromTo<TSource, TTarget> adapt(IConvertArray converter, int targetLength,
+                                                                            Function<TSource, double[]> toArray,
+                                                                            Function<double[], TTarget> fromArray) {
+        Objects.requireNonNull(converter);
+        Objects.requireNonNull(toArray);
+        Objects.requireNonNull(fromArray);
+        return (TSource source) -> {
+            double[] target = new double[targetLength];
+            converter.convert(toArray.apply(source), 0, target, 0);
+            return fromArray.apply(target);
+        };
+    }
+
+    /**
+     * Pack RGB components as {@code 0xRRGGBB} (No range check)
+     *
+     * @param r Red (0 - 255)
+     * @param g Green (0 - 255)
+     * @param b Blue (0 - 255)
+     * @return Packed RGB
+     */
+    public static int packRgb(int r, int g, int b) {
+        return r << 16 | g << 8 | b;
+    }
+
+    /**
+     * Pack RGB as {@code 0xRRGGBB}
+     *
+     * @param rgb RGB
+     * @return Packed RGB
+     */
+    public static int packRgb(Rgb rgb) {
+        return packRgb(rgb.r(), rgb.g(), rgb.b());
+    }
+
+    /**
+     * Create RGB from packed {@code 0xRRGGBB}
+     *
+     * @param rgb Packed RGB
+     * @return RGB
+     */
+    public static Rgb toRgb(int rgb) {
+        return Rgb.from(rgb >>> 16 & 255, rgb >>> 8 & 255, rgb & 255);
+    }
+
+    private static void unpack(int packed, double[] target, int targetOffset) {
+        target[targetOffset] = packed >>> 16 & 255;
+        target[targetOffset + 1] = packed >>> 8 & 255;
+        target[targetOffset + 2] = packed & 255;
+    }
+
+    /*
+        Algorithms 算法
+     */
+
+    static void rgbToHsb(int r, int g, int b, double[] target, int targetOffset) {
+        int max, min;
+        double h, s, v;
+        max = Math.max(Math.max(r, g), b);
+        min = Math.min(Math.min(r, g), b);
+        v = max / 255d;
+        s = max != 0 ? (max - min) / (double) max : 0d;
+        if (Basic.decimalEquals(s, 0d)) {
+            h = 0d;
+        } else {
+            if (max == r) {
+                h = (double) (60 * (g - b)) / (max - min);
+                if (h < 0d) h += 360d;
+            } else if (max == g) {
+                h = 120d + (double) (60 * (b - r)) / (max - min);
+            } else {
+                // same as: if (max == b)
+                h = 240d + (double) (60 * (r - g)) / (max - min);
+            }
+        }
+        target[targetOffset] = h;
+        target[targetOffset + 1] = s * 100d;
+        target[targetOffset + 2] = v * 100d;
+    }
+
+    /**
+     * Convert HSB to packed RGB {@code 0xRRGGBB} (No range check)
+     * <p>将 HSB 转换为打包的 RGB</p>
+     *
+     * @param hue        Hue (0 - 360)
+     * @param saturation Saturation (0 - 100)
+     * @param brightness Brightness / Value (0 - 100)
+     * @return Packed RGB
+     */
+    public static int hsbToRgb(double hue, double saturation, double brightness) {
+        double r, g, b, h, s, v;
+        h = hue % 360d;
+        s = saturation / 100d;
+        v = brightness / 100d;
+        double f, p, q, t;
+        int i = ((int) h / 60) % 6;
+        f = h / 60d - i;
+        p = v * (1d - s);
+        q = v * (1d - f * s);
+        t = v * (1d - (1d - f) * s);
+        switch (i) {
+            case 0: {
+                r = v;
+                g = t;
+                b = p;
+                break;
+            }
+            case 1: {
+                r = q;
+                g = v;
+                b = p;
+                break;
+            }
+            case 2: {
+                r = p;
+                g = v;
+                b = t;
+                break;
+            }
+            case 3: {
+                r = p;
+                g = q;
+                b = v;
+                break;
+            }
+            case 4: {
+                r = t;
+                g = p;
+                b = v;
+                break;
+            }
+            default: {
+                // case 5
+                r = v;
+                g = p;
+                b = q;
+                break;
+            }
+        }
+        return packRgb((int) Math.round(r * 255), (int) Math.round(g * 255), (int) Math.round(b * 255));
+    }
+
+    static void rgbToHsl(int r, int g, int b, double[] target, int targetOffset) {
+        int max, min;
+        double h, s, l;
+        max = Math.max(Math.max(r, g), b);
+        min = Math.min(Math.min(r, g), b);
+        l = (max + min) / 255d / 2d;
+        if (max == min || Basic.decimalEquals(l, 0d)) {
+            s = 0d;
+        } else if (l <= 0.5d) {
+            s = (max - min) / (double) (max + min);
+        } else {
+            s = (max - min) / (double) (510 - (max + min));
+        }
+        if (max == min) {
+            h = 0d;
+        } else {
+            if (max == r) {
+                h = (double) (60 * (g - b)) / (max - min);
+                if (h < 0d) h += 360d;
+            } else if (max == g) {
+                h = 120d + (double) (60 * (b - r)) / (max - min);
+            } else {
+                // same as: if (max == b)
+                h = 240d + (double) (60 * (r - g)) / (max - min);
+            }
+        }
+        target[targetOffset] = h;
+        target[targetOffset + 1] = s * 100d;
+        target[targetOffset + 2] = l * 100d;
+    }
+
+    static int hslToRgb(double hue, double saturation, double lightness) {
+        int r, g, b;
+        if (Basic.decimalEquals(saturation, 0d)) {
+            r = g = b = (int) Math.round(lightness * 255d / 100d);
+        } else {
+            double q, p;
+            if (lightness <= 50d) {
+                q = (lightness * (100d + saturation) / 10000d);
+            } else {
+                q = ((lightness + saturation) / 100d - lightness * saturation / 10000d);
+            }
+            p = (2d * lightness / 100d - q);
+            r = Basic.fRound(hueToChannel((int) Math.round(hue + 120d), p, q) * 255d);
+            g = Basic.fRound(hueToChannel((int) Math.round(hue), p, q) * 255d);
+            b = Basic.fRound(hueToChannel((int) Math.round(hue - 120d), p, q) * 255d);
+        }
+        return packRgb(r, g, b);
+    }
+
+    private static double hueToChannel(int hue, double p, double q) {
+        if (hue < 0) {
+            hue += 360;
+        } else if (hue > 360) {
+            hue -= 360;
+        }
+        if (hue < 60) {
+            return p + (q - p) * (6 * hue / 360d);
+        } else if (hue < 180) {
+            return q;
+        } else if (hue < 240) {
+            return p + (q - p) * (6 * (240 - hue) / 360d);
+        } else {
+            return p;
+        }
+    }
+
+    static int rgbToCmyk(int r, int g, int b) {
+        int c, m, y, k;
+        // RGB转CMYK
+        c = 255 - r;
+        m = 255 - g;
+        y = 255 - b;
+        k = Math.min(Math.min(c, m), y);
+        // CMYK色彩修正
+        if (k == 255) {
+            c = Basic.fRound(c / 255d * 100d);
+            m = Basic.fRound(m / 255d * 100d);
+            y = Basic.fRound(y / 255d * 100d);
+            k = 100;
+        } else {
+            c = Basic.fRound((c - k) / (double) (255 - k) * 100d);
+            m = Basic.fRound((m - k) / (double) (255 - k) * 100d);
+            y = Basic.fRound((y - k) / (double) (255 - k) * 100d);
+            k = Basic.fRound(k / 255d * 100d);
+        }
+        return c << 24 | m << 16 | y << 8 | k;
+    }
+
+    static int cmykToRgb(int c, int m, int y, int k) {
+        int r, g, b;
+        r = (int) Math.round((double) (225 * (100 - c) * (100 - k)) / 10000d);
+        g = (int) Math.round((double) (225 * (100 - m) * (100 - k)) / 10000d);
+        b = (int) Math.round((double) (225 * (100 - y) * (100 - k)) / 10000d);
+        return packRgb(r, g, b);
+    }
+
+    static int rgbToYCrCb(int r, int g, int b) {
+        final int delta = 128;
+        int y = (r * 299 + g * 587 + b * 114 + 500) / 1000;
+        int cr = (500000 * r - 418688 * g - 81312 * b + 500000) / 1000000 + delta;
+        int cb = (-168736 * r - 331264 * g + 500000 * b + 500000) / 1000000 + delta;
+        return y << 16 | Basic.getFixRange(cr, 0, 255) << 8 | Basic.getFixRange(cb, 0, 255);
+    }
+
+    static int yCrCbToRgb(int y, int cr, int cb) {
+        final int delta = 128;
+        double r = y + 1.402d * (cr - delta);
+        double g = y - 0.344136d * (cb - delta) - 0.714136d * (cr - delta);
+        double b = y + 1.772d * (cb - delta);
+        return packRgb(Basic.getFixRange(Basic.fRound(r), 0, 255),
+                Basic.getFixRange(Basic.fRound(g), 0, 255),
+                Basic.getFixRange(Basic.fRound(b), 0, 255));
+    }
+
+    /**
+     * Linear value of every sRGB component (0 - 255), calculated by the gamma formula of {@link #RGB_TO_XYZ}
+     */
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        // Original Gamma formula:
+        // n > 0.04045 ? (n + 0.055) / 1.055 ^ 2.4 : n / 12.92
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            if (i > 10) {
+                SRGB_TO_LINEAR[i] = Math.pow((i / 255d + 0.055d) / 1.055d, 2.4d);
+            } else {
+                SRGB_TO_LINEAR[i] = (i * 10) / 32946d;
+            }
+        }
+    }
+
+    /**
+     * Get linear value of a sRGB component (Gamma expanded, looked up from a 256 entries table)
+     * <p>获取 sRGB 分量的线性值(查表)</p>
+     *
+     * @param component Component of RGB (0 - 255)
+     * @return Linear value (0 - 1)
+     */
+    public static double srgbToLinear(int component) {
+        return SRGB_TO_LINEAR[component];
+    }
+
+    static void rgbToXyz(int r, int g, int b, double[] target, int targetOffset) {
+        // Observer = 2°, Illuminant = D65
+        // Gamma calculation for RGB (looked up from table)
+        double cR = SRGB_TO_LINEAR[r], cG = SRGB_TO_LINEAR[g], cB = SRGB_TO_LINEAR[b];
+        // XYZ calculation
+        target[targetOffset] = cR * 0.4124d + cG * 0.3576d + cB * 0.1805d;
+        target[targetOffset + 1] = cR * 0.2126d + cG * 0.7152d + cB * 0.0722d;
+        target[targetOffset + 2] = cR * 0.0193d + cG * 0.1192d + cB * 0.9505d;
+    }
+
+    static int xyzToRgb(double x, double y, double z) {
+        // Observer = 2°, Illuminant = D65
+        double cR, cG, cB;
+        cR = x * 3.2406d - y * 1.5372d - z * 0.4986d;
+        cG = x * -0.9689d + y * 1.8758d + z * 0.0415d;
+        cB = x * 0.0557d - y * 0.204d + z * 1.057d;
+        // Reverse Gamma calculation
+        if (cR > 0.0031308d) {
+            cR = Math.pow(cR, 0.4166667d) * 1.055d - 0.055d;
+        } else {
+            cR *= 12.92d;
+        }
+        if (cG > 0.0031308d) {
+            cG = Math.pow(cG, 0.4166667d) * 1.055d - 0.055d;
+        } else {
+            cG *= 12.92d;
+        }
+        if (cB > 0.0031308d) {
+            cB = Math.pow(cB, 0.4166667d) * 1.055d - 0.055d;
+        } else {
+            cB *= 12.92d;
+        }
+        return packRgb(Basic.getFixRange(Basic.fRound(cR * 255), 0, 255),
+                Basic.getFixRange(Basic.fRound(cG * 255), 0, 255),
+                Basic.getFixRange(Basic.fRound(cB * 255), 0, 255));
+    }
+
+    static void xyzToLab(double x, double y, double z, double[] target, int targetOffset) {
+        double fX, fY, fZ, cL;
+        x /= 0.950456d;
+        z /= 1.088754d;
+        if (x > 0.008856d) {
+            fX = Math.pow(x, 0.333333d);
+        } else {
+            fX = 7.787d * x + 0.137931d;
+        }
+        if (y > 0.008856d) {
+            fY = Math.pow(y, 0.333333d);
+        } else {
+            fY = 7.787d * y + 0.137931d;
+        }
+        if (z > 0.008856d) {
+            fZ = Math.pow(z, 0.333333d);
+        } else {
+            fZ = 7.787d * z + 0.137931d;
+        }
+        // 计算CIE-Lab
+        if (y > 0.008856d) {
+            cL = 116d * fY - 16d;
+        } else {
+            cL = 903.3d * y;
+        }
+        target[targetOffset] = cL;
+        target[targetOffset + 1] = 500d * (fX - fY);
+        target[targetOffset + 2] = 200d * (fY - fZ);
+    }
+
+    static void labToXyz(double l, double a, double b, double[] target, int targetOffset) {
+        double x, y, z, fX, fY, fZ;
+        // Y and f(Y)
+        if (l > 7.99959d) {
+            // Calculate f(Y) first
+            fY = (l + 16d) / 116d;
+            if (fY > 0.2068927d) {
+                y = Math.pow(fY, 3d);
+            } else {
+                y = (fY - 0.137931d) / 7.787d;
+            }
+        } else {
+            // Calculate Y first
+            y = l / 903.3d;
+            if (y > 0.008856d) {
+                fY = Math.pow(y, 0.333333d);
+            } else {
+                fY = 7.787d * y + 0.137931d;
+            }
+        }
+        // f(X) and f(Z)
+        fX = a / 500d + fY;
+        fZ = fY - b / 200d;
+        // X and Z
+        if (fX > 0.2068927d) {
+            x = Math.pow(fX, 3d);
+        } else {
+            x = (fX - 0.137931d) / 7.787d;
+        }
+        if (fZ > 0.2068927d) {
+            z = Math.pow(fZ, 3d);
+        } else {
+            z = (fZ - 0.137931d) / 7.787d;
+        }
+        target[targetOffset] = x * 0.950456d;
+        target[targetOffset + 1] = y;
+        target[targetOffset + 2] = z * 1.088754d;
+    }
+}
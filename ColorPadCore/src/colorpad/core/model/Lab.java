@@ -67,7 +67,7 @@ public final class Lab implements IColorModel {
         if (this == o) return true;
         if (!(o instanceof Lab)) return false;
         Lab lab = (Lab) o;
-        return compareWith(lab.l(), lab.a(), lab.l());
+        return compareWith(lab.l(), lab.a(), lab.b());
     }
 
     @Override
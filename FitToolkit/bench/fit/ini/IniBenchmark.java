@@ -0,0 +1,101 @@
+package fit.ini;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * 读取大 INI 文件的基准测试(普通的 main 类，不依赖测试框架)
+ * <p>
+ * 生成与提交记录中 "13 MB sample" 相同的文件：2000 个区块，每个区块一行注释和 200 个键值对(键名前有空白)，
+ * 然后分别测量完整解析、延迟解析后读取一个值、toList、freeze、二进制缓存命中和未命中的耗时。
+ * 每项先预热 3 次，再运行 8 次，输出最短和中位数的时间。
+ * </p>
+ * 用法：
+ * <pre>
+ * java -Xms2g -Xmx2g -cp out fit.ini.IniBenchmark [文件路径] [区块数量] [每个区块的键值对数量]
+ * </pre>
+ * 不指定文件路径时在临时目录中生成，结束后删除。固定堆的大小可以减少 GC 对结果的影响。
+ * 缓存未命中的时间包括解析和写入缓存文件。
+ */
+public final class IniBenchmark {
+
+    private static final int WARMUP = 3, RUNS = 8;
+
+    private interface Task {
+        Object run() throws Exception;
+    }
+
+    private IniBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sections = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int entries = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        boolean temporary = args.length == 0;
+        Path file = temporary ? Files.createTempFile("ini-benchmark", ".ini") : Paths.get(args[0]);
+        Path cache = file.resolveSibling(file.getFileName() + IniCache.SUFFIX);
+        try {
+            generate(file, sections, entries);
+            System.out.printf("%s: %d sections x %d entries, %.1f MB, %s%n", file, sections, entries,
+                    Files.size(file) / 1e6, System.getProperty("java.vm.version"));
+            String path = file.toString();
+            String section = "Section" + sections * 3 / 4, key = "Key7";
+
+            measure("loadFromFile", () -> FitIni.loadFromFile(path));
+            measure("lazy load + getEntry",
+                    () -> FitIni.loadFromFile(path, option().setLazy(true)).getEntry(section, key));
+            Ini ini = FitIni.loadFromFile(path);
+            measure("toList", ini::toList);
+            measure("freeze", ini::freeze);
+            measure("cache miss", () -> {
+                Files.deleteIfExists(cache);
+                return FitIni.loadFromFile(path, option().setCache(true));
+            });
+            FitIni.loadFromFile(path, option().setCache(true));
+            measure("cache hit", () -> FitIni.loadFromFile(path, option().setCache(true)));
+        } finally {
+            Files.deleteIfExists(cache);
+            if (temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // 与 FitIni.loadFromFile(String) 相同的选项
+    private static LoadOption option() {
+        return new LoadOption().setDropComment(false).setUnknownLineOption(LoadOption.LineOption.Keep)
+                .setIgnoreFileIoError(true);
+    }
+
+    private static void generate(Path file, int sections, int entries) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, Charset.defaultCharset())) {
+            for (int s = 0; s < sections; s++) {
+                writer.write("[Section" + s + "]\n; comment for section " + s + "\n");
+                for (int k = 0; k < entries; k++) {
+                    writer.write("  Key" + k + " = value " + (s * k) + " some text\n");
+                }
+            }
+        }
+    }
+
+    private static void measure(String name, Task task) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = task.run();
+        }
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            sink = task.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.printf("%-22s best %8.1f ms   median %8.1f ms%s%n", name, times[0] / 1e6, times[RUNS / 2] / 1e6,
+                sink == null ? " (null)" : "");
+    }
+}
@@ -0,0 +1,223 @@
+package fit.ini;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * INI 的不可变快照(线程安全)
+ * <p>
+ * 由 {@link Ini#freeze()} 创建，只保存键值对(不含注释和其他文本)。所有区块的键值对按顺序存放在同一组数组中，
+ * 区块名和 (区块, 键名) 分别由开放寻址的哈希表索引。所有字段都是 final 且创建后不再修改，
+ * 因此可以不加锁地在多个线程之间共享和读取。需要发布新版本时可以使用 {@link IniReference}。
+ * </p>
+ */
+public final class FrozenIni {
+
+    // 默认区块的位置
+    private static final int DEFAULT = 0;
+
+    private final String commentPrefix;
+    // 区块名(位置 0 为默认区块，名字为 null)
+    private final String[] sectionNames;
+    // 第 i 个区块的键值对位于 [entryStarts[i], entryStarts[i + 1])
+    private final int[] entryStarts;
+    private final String[] keys;
+    private final String[] values;
+    private final int[] keyHashes;
+    // 开放寻址(线性探测)的索引，值为 位置 + 1，0 表示空
+    private final int[] sectionTable;
+    private final int[] entryTable;
+
+    FrozenIni(Ini ini) {
+        commentPrefix = ini.commentPrefix;
+        int sectionCount = ini.sections.size() + 1;
+        int entryCount = ini.defaultSection.count();
+        for (Section section : ini.sections.values()) {
+            entryCount += section.count();
+        }
+        sectionNames = new String[sectionCount];
+        entryStarts = new int[sectionCount + 1];
+        keys = new String[entryCount];
+        values = new String[entryCount];
+        keyHashes = new int[entryCount];
+        sectionTable = new int[tableSize(sectionCount)];
+        entryTable = new int[tableSize(entryCount)];
+        int entry = copy(ini.defaultSection, DEFAULT, 0);
+        int index = 1;
+        for (Map.Entry<String, Section> kv : ini.sections.entrySet()) {
+            sectionNames[index] = kv.getKey();
+            insert(sectionTable, hash(kv.getKey()), index);
+            entry = copy(kv.getValue(), index, entry);
+            index++;
+        }
+        entryStarts[sectionCount] = entry;
+    }
+
+    private int copy(Section section, int index, int entry) {
+        entryStarts[index] = entry;
+        for (Map.Entry<String, String> kv : section) {
+            keys[entry] = kv.getKey();
+            values[entry] = kv.getValue();
+            keyHashes[entry] = hash(kv.getKey());
+            insert(entryTable, entryHash(index, keyHashes[entry]), entry);
+            entry++;
+        }
+        return entry;
+    }
+
+    /**
+     * 获取区块的总数(不含默认区块)
+     *
+     * @return 区块数量
+     */
+    public int count() {
+        return sectionNames.length - 1;
+    }
+
+    public String getCommentPrefix() {
+        return commentPrefix;
+    }
+
+    /**
+     * 检测此 INI 中是否包含某区块
+     *
+     * @param sectionName 区块的名字
+     * @return 包含时返回 True, 不包含返回 False
+     */
+    public boolean contains(String sectionName) {
+        return findSection(sectionName == null ? "" : sectionName) >= 0;
+    }
+
+    public String[] getSectionNames() {
+        return Arrays.copyOfRange(sectionNames, 1, sectionNames.length);
+    }
+
+    /**
+     * 获取区块中所有的键名
+     *
+     * @param name 区块名字
+     * @return 键名，区块不存在时返回 null
+     */
+    public String[] getKeys(String name) {
+        int section = findSection(name == null ? "" : name);
+        if (section < 0) {
+            return null;
+        }
+        return Arrays.copyOfRange(keys, entryStarts[section], entryStarts[section + 1]);
+    }
+
+    /**
+     * 访问此 INI 中的条目
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @return 返回值或 null (区块或键不存在时)
+     */
+    public String getEntry(String name, String key) {
+        return getEntry(name, key, null);
+    }
+
+    /**
+     * 访问此 INI 中的条目
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param def  不存在区块或键名时的返回值
+     * @return 返回值或 def
+     */
+    public String getEntry(String name, String key, String def) {
+        int section = findSection(name == null ? "" : name);
+        return section < 0 ? def : find(section, key, def);
+    }
+
+    /**
+     * 访问默认区块中的条目
+     *
+     * @param key 键名
+     * @param def 不存在键名时的返回值
+     * @return 返回值或 def
+     */
+    public String getDefaultEntry(String key, String def) {
+        return find(DEFAULT, key, def);
+    }
+
+    /**
+     * 创建可以修改的 INI 对象(内容与快照相同)
+     *
+     * @return 新的 INI 对象
+     */
+    public Ini toIni() {
+        Ini ini = new Ini();
+        ini.commentPrefix = commentPrefix;
+        fill(ini.defaultSection, DEFAULT);
+        for (int i = 1; i < sectionNames.length; i++) {
+            Section section = new Section();
+            fill(section, i);
+            ini.sections.put(sectionNames[i], section);
+        }
+        ini.resetModified();
+        return ini;
+    }
+
+    private void fill(Section section, int index) {
+        for (int i = entryStarts[index]; i < entryStarts[index + 1]; i++) {
+            section.setItem(keys[i], values[i]);
+        }
+    }
+
+    /*
+        索引
+     */
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // 不同区块中常有相同的键名，需要充分混合，避免线性探测时聚集
+    private static int entryHash(int section, int keyHash) {
+        int h = (keyHash + section * 0x9E3779B9) * 0x85EBCA6B;
+        return h ^ (h >>> 15);
+    }
+
+    // 容量为 2 的幂，装载因子不超过 0.5
+    private static int tableSize(int count) {
+        return Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+    }
+
+    private static void insert(int[] table, int hash, int index) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = index + 1;
+    }
+
+    private int findSection(String name) {
+        int mask = sectionTable.length - 1;
+        for (int i = hash(name) & mask; sectionTable[i] != 0; i = (i + 1) & mask) {
+            int index = sectionTable[i] - 1;
+            if (name.equals(sectionNames[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private String find(int section, String key, String def) {
+        if (key == null) {
+            key = "";
+        }
+        int keyHash = hash(key);
+        int mask = entryTable.length - 1;
+        for (int i = entryHash(section, keyHash) & mask; entryTable[i] != 0; i = (i + 1) & mask) {
+            int entry = entryTable[i] - 1;
+            if (keyHashes[entry] == keyHash && entry >= entryStarts[section] && entry < entryStarts[section + 1]
+                    && key.equals(keys[entry])) {
+                return values[entry];
+            }
+        }
+        return def;
+    }
+}
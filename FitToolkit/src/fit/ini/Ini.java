@@ -1,9 +1,17 @@
 package fit.ini;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 表示一个 INI 对象
@@ -12,6 +20,10 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
     protected Map<String, Section> sections = new LinkedHashMap<>();
     protected Section defaultSection = new Section();
     protected String commentPrefix;
+    // 延迟解析时的数据来源，sections 中值为 null 的区块还没有解析
+    LazySource lazySource;
+    // 读取或保存后区块的增删改名是否修改过(区块内容的修改记录在区块中)
+    boolean modified;
 
     /**
      * 默认的注释前缀
@@ -25,7 +37,35 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
      * @return 若区块不存在时返回 null
      */
     public Section getSection(String name) {
-        return sections.get(name == null ? "" : name);
+        return resolve(name == null ? "" : name);
+    }
+
+    /**
+     * 获取区块，延迟解析的区块在此时解析
+     */
+    private Section resolve(String name) {
+        Section section = sections.get(name);
+        if (section == null && lazySource != null && sections.containsKey(name)) {
+            section = lazySource.parse(name);
+            sections.put(name, section);
+        }
+        return section;
+    }
+
+    /**
+     * 解析所有延迟解析的区块
+     */
+    private void resolveAll() {
+        if (lazySource == null) {
+            return;
+        }
+        for (Map.Entry<String, Section> kv : sections.entrySet()) {
+            if (kv.getValue() == null) {
+                kv.setValue(lazySource.parse(kv.getKey()));
+            }
+        }
+        // 全部解析后不再需要数据来源
+        lazySource = null;
     }
 
     /**
@@ -39,6 +79,7 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
             name = "";
         }
         sections.put(name, Objects.requireNonNull(section));
+        modified = true;
     }
 
     /**
@@ -65,7 +106,10 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
      * @param commentPrefix 注释前缀(不能为空)
      */
     public void setCommentPrefix(String commentPrefix) {
-        this.commentPrefix = Objects.requireNonNull(commentPrefix);
+        if (!Objects.requireNonNull(commentPrefix).equals(this.commentPrefix)) {
+            modified = true;
+        }
+        this.commentPrefix = commentPrefix;
     }
 
     /**
@@ -94,10 +138,11 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
         if (name == null) {
             name = "";
         }
-        Section section = sections.get(name);
+        Section section = resolve(name);
         if (section == null) {
             section = new Section();
             sections.put(name, section);
+            modified = true;
         }
         return section;
     }
@@ -136,6 +181,78 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
         return Optional.ofNullable(getSection(name)).map(sec -> sec.getItem(key)).orElse(def);
     }
 
+    /**
+     * 获取整数值
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param def  区块或键不存在、无法解析时的返回值
+     * @return 值或默认值
+     * @see Section#getInt(String, int)
+     */
+    public int getInt(String name, String key, int def) {
+        Section section = getSection(name);
+        return section == null ? def : section.getInt(key, def);
+    }
+
+    /**
+     * 获取长整数值
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param def  区块或键不存在、无法解析时的返回值
+     * @return 值或默认值
+     * @see Section#getLong(String, long)
+     */
+    public long getLong(String name, String key, long def) {
+        Section section = getSection(name);
+        return section == null ? def : section.getLong(key, def);
+    }
+
+    /**
+     * 获取浮点数值
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param def  区块或键不存在、无法解析时的返回值
+     * @return 值或默认值
+     * @see Section#getDouble(String, double)
+     */
+    public double getDouble(String name, String key, double def) {
+        Section section = getSection(name);
+        return section == null ? def : section.getDouble(key, def);
+    }
+
+    /**
+     * 获取布尔值
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param def  区块或键不存在、无法解析时的返回值
+     * @return 值或默认值
+     * @see Section#getBoolean(String, boolean)
+     */
+    public boolean getBoolean(String name, String key, boolean def) {
+        Section section = getSection(name);
+        return section == null ? def : section.getBoolean(key, def);
+    }
+
+    /**
+     * 获取枚举值
+     *
+     * @param name 区块名字
+     * @param key  键名
+     * @param type 枚举类型
+     * @param def  区块或键不存在、无法解析时的返回值
+     * @param <E>  枚举类型
+     * @return 值或默认值
+     * @see Section#getEnum(String, Class, Enum)
+     */
+    public <E extends Enum<E>> E getEnum(String name, String key, Class<E> type, E def) {
+        Section section = getSection(name);
+        return section == null ? def : section.getEnum(key, type, def);
+    }
+
     /**
      * 写入此 INI 中的条目(不存在的区块和键值对会被自动添加)
      *
@@ -165,7 +282,15 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
      * @return 成功移除返回 True, 否则返回 False
      */
     public boolean remove(String sectionName) {
-        return sections.remove(sectionName == null ? "" : sectionName) != null;
+        if (sectionName == null) {
+            sectionName = "";
+        }
+        if (!sections.containsKey(sectionName)) {
+            return false;
+        }
+        sections.remove(sectionName);
+        modified = true;
+        return true;
     }
 
     /**
@@ -183,8 +308,10 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
             newName = "";
         }
         if (!oldName.equals(newName) && sections.containsKey(oldName)) {
-            Section section = sections.remove(oldName);
+            Section section = resolve(oldName);
+            sections.remove(oldName);
             sections.put(newName, section);
+            modified = true;
             return true;
         }
         return false;
@@ -198,13 +325,26 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
     public Ini clone() {
         Ini ini = new Ini();
         ini.commentPrefix = this.commentPrefix;
+        ini.modified = this.modified;
         ini.defaultSection = this.defaultSection.clone();
+        // 数据来源是只读的，未解析的区块可以共用
+        ini.lazySource = this.lazySource;
         for (Map.Entry<String, Section> kv : this.sections.entrySet()) {
-            ini.sections.put(kv.getKey(), kv.getValue().clone());
+            ini.sections.put(kv.getKey(), kv.getValue() == null ? null : kv.getValue().clone());
         }
         return ini;
     }
 
+    /**
+     * 创建当前内容的不可变快照(只包含键值对，延迟解析的区块在此时解析)
+     *
+     * @return 快照，可以在多个线程之间共享
+     */
+    public FrozenIni freeze() {
+        resolveAll();
+        return new FrozenIni(this);
+    }
+
     /**
      * 清空当前 Section 对象的所有内容
      */
@@ -221,14 +361,21 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
         if (includingDefault) {
             defaultSection.clear();
         }
-        sections.forEach((k, v) -> v.clear());
+        if (!sections.isEmpty()) {
+            modified = true;
+        }
+        sections.forEach((k, v) -> {
+            if (v != null) v.clear();
+        });
         sections.clear();
+        lazySource = null;
     }
 
     /**
      * 移除所有的注释和文本 (除键值对数据以外的内容)
      */
     public void removeAllComments() {
+        resolveAll();
         defaultSection.removeAllComments();
         sections.forEach((k, v) -> v.removeAllComments());
     }
@@ -243,6 +390,7 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
      * @return 返回包含每行内容的列表
      */
     public List<String> toList() {
+        resolveAll();
         List<String> list = defaultSection.toList(commentPrefix);
         for (Map.Entry<String, Section> kv : sections.entrySet()) {
             list.add("[" + kv.getKey() + "]");
@@ -251,23 +399,131 @@ public class Ini implements Iterable<Map.Entry<String, Section>> {
         return list;
     }
 
-    public void saveToFile(String path) {
-        try (BufferedWriter file = new BufferedWriter(new FileWriter(path))) {
-            List<String> list = toList();
-            Iterator<String> iterator = list.iterator();
-            while (iterator.hasNext()) {
-                file.write(iterator.next());
-                if (iterator.hasNext()) {
-                    file.newLine();
+    /**
+     * 读取或保存后是否被修改过(包括区块的内容)
+     *
+     * @return 修改过返回 True
+     */
+    public boolean isModified() {
+        if (modified || defaultSection.modified) {
+            return true;
+        }
+        for (Section section : sections.values()) {
+            // 未解析的区块没有修改
+            if (section != null && section.modified) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 标记为未修改(读取或保存后调用)
+     */
+    void resetModified() {
+        modified = false;
+        defaultSection.modified = false;
+        for (Section section : sections.values()) {
+            if (section != null) {
+                section.modified = false;
+            }
+        }
+    }
+
+    /**
+     * 按行写出内容(与 {@link #toList()} 的内容相同，最后一行后没有换行符)
+     *
+     * @param writer 输出
+     * @throws IOException 写入失败
+     */
+    public void write(BufferedWriter writer) throws IOException {
+        resolveAll();
+        boolean hasLine = defaultSection.write(writer, commentPrefix, false);
+        for (Map.Entry<String, Section> kv : sections.entrySet()) {
+            if (hasLine) {
+                writer.newLine();
+            }
+            writer.write('[');
+            writer.write(kv.getKey());
+            writer.write(']');
+            hasLine = kv.getValue().write(writer, commentPrefix, true);
+        }
+    }
+
+    /**
+     * 保存到文件
+     * <p>先写入同一目录下的临时文件，完成后再替换目标文件，写入失败时不会破坏原来的文件</p>
+     *
+     * @param path 文件路径
+     * @throws IOException 写入或替换文件失败
+     */
+    public void saveToFile(String path) throws IOException {
+        Path target = Paths.get(path).toAbsolutePath();
+        boolean exists = Files.exists(target);
+        Path temp = exists ? Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp")
+                : createFile(target);
+        try {
+            try (BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(temp), Charset.defaultCharset()))) {
+                write(writer);
+            }
+            if (exists) {
+                // 保留原来文件的权限(临时文件默认只有当前用户可读写)
+                try {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+                } catch (UnsupportedOperationException ignored) {
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        resetModified();
+    }
+
+    /**
+     * 在目标文件旁边创建一个新文件，不指定属性，权限与直接创建目标文件时相同(由 umask 决定)
+     *
+     * @param target 目标文件
+     * @return 新文件
+     * @throws IOException 创建失败
+     */
+    private static Path createFile(Path target) throws IOException {
+        String prefix = target.getFileName().toString() + '.';
+        while (true) {
+            Path file = target.resolveSibling(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(file);
+            } catch (FileAlreadyExistsException ignored) {
+                // 名字冲突时换一个
+            }
+        }
+    }
+
+    /**
+     * 只在读取或保存后被修改过时保存到文件
+     *
+     * @param path 文件路径
+     * @return 写入了文件返回 True，没有修改返回 False
+     * @throws IOException 写入或替换文件失败
+     * @see #saveToFile(String)
+     */
+    public boolean saveIfModified(String path) throws IOException {
+        if (!isModified()) {
+            return false;
         }
+        saveToFile(path);
+        return true;
     }
 
     @Override
     public Iterator<Map.Entry<String, Section>> iterator() {
+        resolveAll();
         return new Itr<>(sections.entrySet().iterator());
     }
 
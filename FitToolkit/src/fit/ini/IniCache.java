@@ -0,0 +1,320 @@
+package fit.ini;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * INI 文件解析结果的二进制缓存
+ * <p>
+ * 缓存文件保存在源文件旁边(文件名加上 {@link #SUFFIX})，记录源文件的大小和修改时间，以及影响解析结果的选项。
+ * 读取时这些都相同才使用缓存，直接按偏移量还原区块和记录，不再解析文本；否则解析源文件并重新写入缓存。
+ * </p>
+ * 缓存文件的格式(大端序)：
+ * <pre>
+ * 头部     int 魔数, int 版本, long 源文件大小, long 源文件修改时间,
+ *          int 字符串数量, int 区块数量, int 记录数量, int 选项签名(字符串序号)
+ * 字符串表 int[字符串数量 + 1] 每个字符串在数据区中的偏移量
+ * 区块     {int 区块名(字符串序号，默认区块为 -1), int 第一条记录的序号} × 区块数量
+ * 记录     {byte 种类, int 键名(字符串序号，没有时为 -1), int 内容(字符串序号)} × 记录数量
+ * 数据区   UTF-8 编码的字符串
+ * </pre>
+ */
+final class IniCache {
+
+    /**
+     * 缓存文件名的后缀
+     */
+    static final String SUFFIX = ".cache";
+
+    private static final int MAGIC = 0x46495443; // "FITC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4;
+    private static final int SECTION_SIZE = 4 + 4;
+    private static final int RECORD_SIZE = 1 + 4 + 4;
+    private static final byte KEY_VALUE = 0, COMMENT = 1, OTHER = 2;
+    // 小于此大小的缓存直接读入内存，不映射
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private IniCache() {
+    }
+
+    /**
+     * 从缓存读取，缓存无效时解析源文件并更新缓存
+     *
+     * @param path    源文件路径
+     * @param charset 源文件编码
+     * @param arg     解析的选项
+     * @return 解析得到的 INI
+     * @throws IOException 读取源文件失败
+     */
+    static Ini load(String path, Charset charset, LoadOption arg) throws IOException {
+        Path source = Paths.get(path).toAbsolutePath();
+        Path cache = source.resolveSibling(source.getFileName() + SUFFIX);
+        // 在解析之前获取源文件的状态，解析期间文件被修改时缓存会在下次读取时失效
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long size = attributes.size(), modified = attributes.lastModifiedTime().toMillis();
+        String signature = signature(charset, arg);
+        Ini ini = read(cache, size, modified, signature);
+        if (ini != null) {
+            return ini;
+        }
+        try (Reader reader = new InputStreamReader(Files.newInputStream(source), charset)) {
+            ini = FitIni.buildIni(reader, arg);
+        }
+        try {
+            write(ini, cache, size, modified, signature);
+        } catch (IOException | RuntimeException ignored) {
+            // 缓存是可选的，写入失败时只是下次需要重新解析
+        }
+        return ini;
+    }
+
+    // 影响解析结果的选项
+    private static String signature(Charset charset, LoadOption arg) {
+        return charset.name() + '\0' + arg.isDropComment() + '\0' + arg.getCommentPrefix() + '\0' +
+                arg.getUnknownLineOption() + '\0' + arg.isTrimKey() + '\0' + arg.isTrimValue();
+    }
+
+    /*
+        读取
+     */
+
+    /**
+     * 读取缓存
+     *
+     * @return 缓存无效时返回 null
+     */
+    private static Ini read(Path cache, long size, long modified, String signature) {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            if (length < MAP_THRESHOLD) {
+                data = ByteBuffer.allocate((int) length);
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // 读取全部内容
+                }
+                data.flip();
+            } else {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            return new CacheReader(data).read(size, modified, signature);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // 缓存文件已损坏
+            return null;
+        }
+    }
+
+    private static final class CacheReader {
+        private final ByteBuffer data;
+        private String[] strings;
+        private int stringOffsets, blob;
+
+        CacheReader(ByteBuffer data) {
+            this.data = data;
+        }
+
+        Ini read(long size, long modified, String signature) {
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION
+                    || data.getLong(8) != size || data.getLong(16) != modified) {
+                return null;
+            }
+            int stringCount = data.getInt(24), sectionCount = data.getInt(28), recordCount = data.getInt(32);
+            if (stringCount < 0 || sectionCount < 1 || recordCount < 0) {
+                return null;
+            }
+            // 先用 long 检查各部分的大小，避免溢出和按损坏的数量分配内存
+            long length = HEADER_SIZE + (stringCount + 1L) * 4 + (long) sectionCount * SECTION_SIZE
+                    + (long) recordCount * RECORD_SIZE;
+            if (length > data.limit()) {
+                return null;
+            }
+            strings = new String[stringCount];
+            stringOffsets = HEADER_SIZE;
+            int sections = stringOffsets + (stringCount + 1) * 4;
+            int records = sections + sectionCount * SECTION_SIZE;
+            blob = (int) length;
+            if (blob + data.getInt(stringOffsets + stringCount * 4) != data.limit()) {
+                return null;
+            }
+            if (!signature.equals(string(data.getInt(36)))) {
+                return null;
+            }
+            Ini ini = new Ini();
+            for (int i = 0; i < sectionCount; i++) {
+                int position = sections + i * SECTION_SIZE;
+                int name = data.getInt(position);
+                int start = data.getInt(position + 4);
+                int end = i + 1 < sectionCount ? data.getInt(position + SECTION_SIZE + 4) : recordCount;
+                if (start < 0 || start > end || end > recordCount) {
+                    return null;
+                }
+                Section section = new Section(end - start);
+                for (int record = start; record < end; record++) {
+                    int offset = records + record * RECORD_SIZE;
+                    byte type = data.get(offset);
+                    String content = string(data.getInt(offset + 5));
+                    if (type == KEY_VALUE) {
+                        section.setItem(string(data.getInt(offset + 1)), content);
+                    } else {
+                        section.addComment(content, type == COMMENT);
+                    }
+                }
+                if (i == 0) {
+                    if (name != -1) {
+                        return null;
+                    }
+                    ini.defaultSection = section;
+                } else {
+                    ini.sections.put(string(name), section);
+                }
+            }
+            return ini;
+        }
+
+        // 每个字符串只解码一次
+        private String string(int index) {
+            String value = strings[index];
+            if (value == null) {
+                int start = data.getInt(stringOffsets + index * 4);
+                int end = data.getInt(stringOffsets + index * 4 + 4);
+                if (start < 0 || start > end) {
+                    throw new IllegalArgumentException("Invalid string offset");
+                }
+                byte[] bytes = new byte[end - start];
+                ByteBuffer view = data.duplicate();
+                view.position(blob + start);
+                view.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = value;
+            }
+            return value;
+        }
+    }
+
+    /*
+        写入
+     */
+
+    /**
+     * 写入缓存(先写入临时文件再替换)
+     */
+    private static void write(Ini ini, Path cache, long size, long modified, String signature) throws IOException {
+        CacheWriter writer = new CacheWriter();
+        int signatureIndex = writer.string(signature);
+        writer.section(-1, ini.defaultSection);
+        for (Map.Entry<String, Section> kv : ini.sections.entrySet()) {
+            writer.section(writer.string(kv.getKey()), kv.getValue());
+        }
+        Path temp = Files.createTempFile(cache.getParent(), cache.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                writer.writeTo(out, size, modified, signatureIndex);
+            }
+            try {
+                Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static final class CacheWriter {
+        // 字符串表(相同的字符串只保存一次)
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int[] sections = new int[16];
+        private int sectionCount;
+        private byte[] types = new byte[64];
+        private int[] keys = new int[64], contents = new int[64];
+        private int recordCount;
+
+        int string(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(value, index);
+                strings.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        void section(int name, Section section) {
+            if (sectionCount * 2 == sections.length) {
+                sections = Arrays.copyOf(sections, sections.length * 2);
+            }
+            sections[sectionCount * 2] = name;
+            sections[sectionCount * 2 + 1] = recordCount;
+            sectionCount++;
+            section.forEachRecord((key, content, isComment) -> {
+                if (recordCount == types.length) {
+                    int capacity = types.length * 2;
+                    types = Arrays.copyOf(types, capacity);
+                    keys = Arrays.copyOf(keys, capacity);
+                    contents = Arrays.copyOf(contents, capacity);
+                }
+                types[recordCount] = key != null ? KEY_VALUE : isComment ? COMMENT : OTHER;
+                keys[recordCount] = key == null ? -1 : string(key);
+                contents[recordCount] = string(content);
+                recordCount++;
+            });
+        }
+
+        void writeTo(DataOutputStream out, long size, long modified, int signature) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(strings.size());
+            out.writeInt(sectionCount);
+            out.writeInt(recordCount);
+            out.writeInt(signature);
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] bytes : strings) {
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for (int i = 0; i < sectionCount * 2; i++) {
+                out.writeInt(sections[i]);
+            }
+            for (int i = 0; i < recordCount; i++) {
+                out.writeByte(types[i]);
+                out.writeInt(keys[i]);
+                out.writeInt(contents[i]);
+            }
+            for (byte[] bytes : strings) {
+                out.write(bytes);
+            }
+        }
+    }
+}
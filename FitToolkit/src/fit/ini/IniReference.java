@@ -0,0 +1,72 @@
+package fit.ini;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 发布 INI 快照的原子引用
+ * <p>
+ * 读取时只是一次 volatile 读，不加锁；更新时创建新的快照并原子地替换，
+ * 正在使用旧快照的线程不受影响。
+ * </p>
+ */
+public final class IniReference {
+
+    private final AtomicReference<FrozenIni> current;
+
+    /**
+     * @param initial 初始的快照(不能为空)
+     */
+    public IniReference(FrozenIni initial) {
+        current = new AtomicReference<>(Objects.requireNonNull(initial, "initial cannot be null"));
+    }
+
+    /**
+     * 获取当前的快照
+     *
+     * @return 快照
+     */
+    public FrozenIni get() {
+        return current.get();
+    }
+
+    /**
+     * 发布新的快照
+     *
+     * @param ini 快照(不能为空)
+     */
+    public void set(FrozenIni ini) {
+        current.set(Objects.requireNonNull(ini, "ini cannot be null"));
+    }
+
+    /**
+     * 当前快照为 expect 时替换为 update
+     *
+     * @param expect 期望的当前快照
+     * @param update 新的快照(不能为空)
+     * @return 替换成功返回 True
+     */
+    public boolean compareAndSet(FrozenIni expect, FrozenIni update) {
+        return current.compareAndSet(expect, Objects.requireNonNull(update, "update cannot be null"));
+    }
+
+    /**
+     * 修改当前快照的副本并发布，与其他更新冲突时会基于最新的快照重试(修改操作可能被调用多次)
+     *
+     * @param modifier 修改操作
+     * @return 发布的快照
+     */
+    public FrozenIni update(Consumer<Ini> modifier) {
+        Objects.requireNonNull(modifier, "modifier cannot be null");
+        while (true) {
+            FrozenIni expect = current.get();
+            Ini ini = expect.toIni();
+            modifier.accept(ini);
+            FrozenIni update = ini.freeze();
+            if (current.compareAndSet(expect, update)) {
+                return update;
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package fit.ini;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * 单次扫描的 INI 解析器(线程不安全，每次解析创建一个)
+ * <p>
+ * 直接在字符缓冲区中分行，扫描时同时记录第一个 '=' 的位置，按位置判断行的种类并截取键值，
+ * 只为最终保存的内容创建字符串。换行符的处理与 {@link java.io.BufferedReader#readLine()} 相同。
+ * </p>
+ */
+final class IniScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final LoadOption arg;
+    // 注释前缀(";", "#", 自定义前缀，去重后按顺序匹配)
+    private final char[][] commentPrefixes;
+
+    private final Ini ini = new Ini();
+    private Section sec = new Section();
+    private String secName = null;
+
+    IniScanner(LoadOption arg) {
+        this.arg = Objects.requireNonNull(arg);
+        String custom = arg.getCommentPrefix();
+        if (custom.equals(";") || custom.equals("#")) {
+            commentPrefixes = new char[][]{{';'}, {'#'}};
+        } else {
+            commentPrefixes = new char[][]{{';'}, {'#'}, custom.toCharArray()};
+        }
+    }
+
+    /**
+     * 读取并解析所有的行
+     *
+     * @param reader 字符流(不会被关闭)
+     * @throws IOException 读取失败
+     */
+    void scan(Reader reader) throws IOException {
+        char[] buf = new char[DEFAULT_BUFFER_SIZE];
+        // buf 中 [0, limit) 为有效数据，lineStart 为当前行的开头，pos 为下一个要检查的字符
+        int limit = 0, lineStart = 0, pos = 0;
+        // 当前行第一个 '=' 的位置
+        int eq = -1;
+        // 上一行以 '\r' 结尾，需要跳过紧接着的 '\n'
+        boolean skipLF = false;
+        while (true) {
+            if (pos == limit) {
+                // 缓冲区用完，把未完成的行移到开头，必要时扩容
+                if (lineStart > 0) {
+                    int remain = limit - lineStart;
+                    System.arraycopy(buf, lineStart, buf, 0, remain);
+                    if (eq >= 0) {
+                        eq -= lineStart;
+                    }
+                    limit = pos = remain;
+                    lineStart = 0;
+                } else if (limit == buf.length) {
+                    char[] larger = new char[buf.length * 2];
+                    System.arraycopy(buf, 0, larger, 0, limit);
+                    buf = larger;
+                }
+                int n = reader.read(buf, limit, buf.length - limit);
+                if (n < 0) {
+                    break;
+                }
+                limit += n;
+                continue;
+            }
+            char c = buf[pos];
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    lineStart = ++pos;
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                line(buf, lineStart, pos, eq);
+                eq = -1;
+                skipLF = c == '\r';
+                lineStart = ++pos;
+            } else {
+                if (c == '=' && eq < 0) {
+                    eq = pos;
+                }
+                pos++;
+            }
+        }
+        if (lineStart < limit) {
+            // 最后一行没有换行符
+            line(buf, lineStart, limit, eq);
+        }
+    }
+
+    /**
+     * 解析缓冲区中的所有行(内容已经全部在缓冲区中)
+     *
+     * @param buf   缓冲区
+     * @param start 开始位置
+     * @param end   结束位置(不包含)
+     */
+    void scan(char[] buf, int start, int end) {
+        int lineStart = start, eq = -1;
+        for (int pos = start; pos < end; pos++) {
+            char c = buf[pos];
+            if (c == '\n' || c == '\r') {
+                line(buf, lineStart, pos, eq);
+                eq = -1;
+                if (c == '\r' && pos + 1 < end && buf[pos + 1] == '\n') {
+                    pos++;
+                }
+                lineStart = pos + 1;
+            } else if (c == '=' && eq < 0) {
+                eq = pos;
+            }
+        }
+        if (lineStart < end) {
+            // 最后一行没有换行符
+            line(buf, lineStart, end, eq);
+        }
+    }
+
+    /**
+     * 按位置判断行的种类
+     *
+     * @param buf   缓冲区
+     * @param start 行的开头
+     * @param end   行的结尾(不包含)
+     * @param eq    第一个 '=' 的位置，没有时为负数
+     */
+    private void line(char[] buf, int start, int end, int eq) {
+        int length = end - start;
+        if (length >= 2 && buf[start] == '[' && buf[end - 1] == ']') {
+            // 区块开头
+            saveSection();
+            secName = new String(buf, start + 1, length - 2);
+            sec = new Section();
+            return;
+        }
+        for (char[] prefix : commentPrefixes) {
+            if (startsWith(buf, start, end, prefix)) {
+                // 注释
+                if (!arg.isDropComment()) {
+                    sec.addComment(new String(buf, start + prefix.length, length - prefix.length));
+                }
+                return;
+            }
+        }
+        if (eq >= 0) {
+            // 键值对
+            int keyStart = start, keyEnd = eq, valueStart = eq + 1, valueEnd = end;
+            if (arg.isTrimKey()) {
+                while (keyStart < keyEnd && buf[keyStart] <= ' ') keyStart++;
+                while (keyEnd > keyStart && buf[keyEnd - 1] <= ' ') keyEnd--;
+            }
+            if (arg.isTrimValue()) {
+                while (valueStart < valueEnd && buf[valueStart] <= ' ') valueStart++;
+                while (valueEnd > valueStart && buf[valueEnd - 1] <= ' ') valueEnd--;
+            }
+            sec.setItem(new String(buf, keyStart, keyEnd - keyStart), new String(buf, valueStart, valueEnd - valueStart));
+            return;
+        }
+        // 其他文本
+        switch (arg.getUnknownLineOption()) {
+            case Drop:
+                return;
+            case Keep:
+                sec.addComment(new String(buf, start, length), false);
+                break;
+            case AsMultiLine:
+                sec.appendToLast("\n" + new String(buf, start, length));
+                break;
+            case AsMultiLineCombined:
+                sec.appendToLast(new String(buf, start, length));
+                break;
+            case ForceToComment:
+                sec.addComment(new String(buf, start, length), true);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected value: " + arg.getUnknownLineOption());
+        }
+    }
+
+    private static boolean startsWith(char[] buf, int start, int end, char[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void saveSection() {
+        if (secName == null) {
+            // 如果还没有遇到过区块开头放入默认区块
+            ini.defaultSection = sec;
+        } else {
+            // 已经读取过区块就按照区块名存入对象中
+            ini.setSection(secName, sec);
+        }
+    }
+
+    /**
+     * 结束解析
+     *
+     * @return 解析得到的 INI
+     */
+    Ini finish() {
+        // 保存最后一个读取的区块
+        saveSection();
+        return ini;
+    }
+}
@@ -0,0 +1,194 @@
+package fit.ini;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 延迟解析的 INI 数据来源
+ * <p>
+ * 读取时只扫描一遍字节，记录每个区块内容的字节范围，区块在第一次被访问时才解码并解析。
+ * 换行符('\n', '\r')和 '[' 在支持的编码(ASCII 兼容的编码，如 UTF-8、GBK)中都是单字节且不会出现在多字节字符内部，
+ * 区块开头的行会被解码后再判断是否以 ']' 结尾，因此分区的结果与完整解析相同。
+ * </p>
+ */
+final class LazySource {
+
+    // 小于此大小的文件直接读入内存，不映射
+    private static final long MAP_THRESHOLD = 1 << 20;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final ByteBuffer data;
+    private final Charset charset;
+    private final LoadOption arg;
+    // 区块名 -> 内容的字节范围(开始位置 << 32 | 结束位置)，区块名重复时使用最后一个
+    private final Map<String, Long> ranges = new HashMap<>();
+
+    private LazySource(ByteBuffer data, Charset charset, LoadOption arg) {
+        this.data = data;
+        this.charset = charset;
+        this.arg = arg;
+    }
+
+    /**
+     * 是否支持此编码(换行符和 INI 使用的符号需要编码为相同的单字节)
+     *
+     * @param charset 编码
+     * @return 支持时返回 True
+     */
+    static boolean supports(Charset charset) {
+        String symbols = "[]=;#\r\n";
+        return charset.canEncode() && Arrays.equals(symbols.getBytes(charset), symbols.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 读取文件并建立区块的索引
+     *
+     * @param path    文件路径
+     * @param charset 文件编码
+     * @param arg     解析的选项
+     * @return 只包含区块名的 INI (默认区块已经解析)
+     * @throws IOException 读取失败
+     */
+    static Ini load(String path, Charset charset, LoadOption arg) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                data = ByteBuffer.allocate((int) size);
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // 读取全部内容
+                }
+                data.flip();
+            } else {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        LazySource source = new LazySource(data, charset, arg.copy());
+        return source.index();
+    }
+
+    private Ini index() {
+        Ini ini = new Ini();
+        int limit = data.limit();
+        // 当前区块的名字和内容开始的位置
+        String name = null;
+        int contentStart = 0;
+        int lineStart = 0;
+        // 上一行以 '\r' 结尾，需要跳过紧接着的 '\n'
+        boolean skipLF = false;
+        // 按块复制到数组中扫描换行符
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, limit)];
+        ByteBuffer view = data.duplicate();
+        for (int base = 0; base < limit; base += chunk.length) {
+            int n = Math.min(chunk.length, limit - base);
+            view.position(base);
+            view.get(chunk, 0, n);
+            for (int i = 0; i < n; i++) {
+                byte b = chunk[i];
+                if (b != '\n' && b != '\r') {
+                    skipLF = false;
+                    continue;
+                }
+                int pos = base + i;
+                if (skipLF && b == '\n') {
+                    skipLF = false;
+                    if (contentStart == pos) {
+                        contentStart++;
+                    }
+                    lineStart = pos + 1;
+                    continue;
+                }
+                skipLF = b == '\r';
+                String header = header(lineStart, pos);
+                if (header != null) {
+                    // 区块开头，结束上一个区块
+                    close(ini, name, contentStart, lineStart);
+                    name = header;
+                    contentStart = pos + 1;
+                }
+                lineStart = pos + 1;
+            }
+        }
+        if (lineStart < limit) {
+            String header = header(lineStart, limit);
+            if (header != null) {
+                close(ini, name, contentStart, lineStart);
+                name = header;
+                contentStart = limit;
+            }
+        }
+        close(ini, name, contentStart, limit);
+        ini.lazySource = ranges.isEmpty() ? null : this;
+        return ini;
+    }
+
+    /**
+     * 判断一行是否为区块开头
+     *
+     * @return 区块名，不是区块开头时返回 null
+     */
+    private String header(int start, int end) {
+        if (end - start < 2 || data.get(start) != '[') {
+            return null;
+        }
+        String line = decode(start, end).toString();
+        if (line.length() >= 2 && line.endsWith("]")) {
+            return line.substring(1, line.length() - 1);
+        }
+        return null;
+    }
+
+    private void close(Ini ini, String name, int start, int end) {
+        if (name == null) {
+            ini.defaultSection = parse(start, end);
+        } else {
+            // 未解析的区块值为 null，保留区块的顺序
+            ini.sections.put(name, null);
+            ranges.put(name, (long) start << 32 | end);
+        }
+    }
+
+    /**
+     * 解析区块
+     *
+     * @param name 区块名
+     * @return 区块，不存在时返回 null
+     */
+    Section parse(String name) {
+        Long range = ranges.get(name);
+        if (range == null) {
+            return null;
+        }
+        return parse((int) (range >>> 32), (int) (long) range);
+    }
+
+    private Section parse(int start, int end) {
+        CharBuffer chars = decode(start, end);
+        IniScanner scanner = new IniScanner(arg);
+        if (chars.hasArray()) {
+            scanner.scan(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+        } else {
+            char[] array = new char[chars.remaining()];
+            chars.get(array);
+            scanner.scan(array, 0, array.length);
+        }
+        Section section = scanner.finish().defaultSection;
+        section.modified = false;
+        return section;
+    }
+
+    private CharBuffer decode(int start, int end) {
+        ByteBuffer slice = data.duplicate();
+        slice.limit(end).position(start);
+        return charset.decode(slice);
+    }
+}
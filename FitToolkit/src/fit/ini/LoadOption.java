@@ -36,6 +36,8 @@ public class LoadOption {
     private LineOption unknownLineOption;
     private boolean trimKey = true;
     private boolean trimValue = true;
+    private boolean lazy = false;
+    private boolean cache = false;
 
     public boolean isIgnoreFileIoError() {
         return ignoreFileIoError;
@@ -120,4 +122,58 @@ public class LoadOption {
         this.trimValue = trimValue;
         return this;
     }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * 是否延迟解析区块
+     * <p>
+     * 延迟解析时读取文件只记录每个区块的位置，区块在第一次被访问时才解析，适合只读取少数区块的大文件。
+     * 较大的文件会被映射到内存，在 INI 对象的所有区块都被解析之前，文件会保持映射
+     * (在部分系统上映射期间文件不能被覆盖或删除)。
+     * </p>
+     *
+     * @param lazy 设置为 true 延迟解析，false 读取时解析全部内容
+     */
+    public LoadOption setLazy(boolean lazy) {
+        this.lazy = lazy;
+        return this;
+    }
+
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * 是否使用二进制缓存
+     * <p>
+     * 使用缓存时解析结果会保存在源文件旁边的缓存文件中(文件名加上 ".cache")，
+     * 之后读取时如果源文件的大小、修改时间和解析选项都没有变化，直接从缓存还原，不再解析文本。
+     * 使用缓存时总是读取全部区块(忽略 {@link #setLazy(boolean)})，缓存写入失败时不影响读取的结果。
+     * </p>
+     *
+     * @param cache 设置为 true 使用缓存
+     */
+    public LoadOption setCache(boolean cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * 创建当前选项的副本
+     */
+    LoadOption copy() {
+        LoadOption option = new LoadOption();
+        option.ignoreFileIoError = ignoreFileIoError;
+        option.dropComment = dropComment;
+        option.commentPrefix = commentPrefix;
+        option.unknownLineOption = unknownLineOption;
+        option.trimKey = trimKey;
+        option.trimValue = trimValue;
+        option.lazy = lazy;
+        option.cache = cache;
+        return option;
+    }
 }
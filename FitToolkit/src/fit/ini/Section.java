@@ -1,14 +1,70 @@
 package fit.ini;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * 表示 INI 对象内部的一个区块
+ * <p>
+ * 键值对、注释和其他文本按顺序存放在同一组数组中(双向链表)，键值对另外由开放寻址的哈希表索引，
+ * 查询、添加、删除和改名都是 O(1)。删除的位置会被之后添加的记录重用。
+ * </p>
+ * <p>
+ * 类型化的读取方法({@link #getInt(String, int)} 等)会把解析结果(包括解析失败)和文本一起缓存，
+ * 值没有改变时重复读取不会再次解析。
+ * </p>
  */
 public class Section implements Iterable<Map.Entry<String, String>> {
 
-    protected Map<String, String> entries = new HashMap<>();
-    protected List<Record> itemList = new ArrayList<>();
+    /**
+     * 记录的种类
+     */
+    private static final byte KEY_VALUE = 0, COMMENT = 1, OTHER = 2;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NONE = -1;
+    /**
+     * 缓存的解析结果的种类
+     */
+    private static final byte PARSED_NONE = 0, PARSED_LONG = 1, PARSED_DOUBLE = 2, PARSED_BOOLEAN = 3,
+            INVALID_LONG = 4, INVALID_DOUBLE = 5, INVALID_BOOLEAN = 6;
+    // 每个枚举类型的常量和按名字的索引
+    private static final ClassValue<Map<String, Enum<?>>> enumNames = new ClassValue<Map<String, Enum<?>>>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> map = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                map.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+            }
+            return map;
+        }
+    };
+    private static final ClassValue<Object[]> enumConstants = new ClassValue<Object[]>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            return type.getEnumConstants();
+        }
+    };
+
+    // 每个位置的记录：键(注释和其他文本为 null)、值或文本内容、种类、键的哈希值、前后记录的位置
+    private String[] keys;
+    private String[] contents;
+    private byte[] types;
+    private int[] hashes;
+    private int[] prev, next;
+    // 值的解析结果(long 或 double 的位)和种类
+    private long[] parsedBits;
+    private byte[] parsedKinds;
+    private int head = NONE, tail = NONE;
+    // 已经使用过的位置数量 和 空闲位置的链表(通过 next 链接)
+    private int used, free = NONE;
+    private int records, count;
+    // 开放寻址(线性探测)的索引，值为 位置 + 1，0 表示空
+    private int[] table;
+    // 结构修改的次数，用于迭代时检测修改
+    private int modCount;
+    // 读取或保存后是否被修改过
+    boolean modified;
 
     /**
      * 获取此区块中键值对的值
@@ -17,7 +73,8 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      * @return key 对应的值
      */
     public String getItem(String key) {
-        return entries.get(key == null ? "" : key);
+        int slot = find(key == null ? "" : key);
+        return slot == NONE ? null : contents[slot];
     }
 
     /**
@@ -31,10 +88,20 @@ public class Section implements Iterable<Map.Entry<String, String>> {
         if (key == null) {
             key = "";
         }
-        if (!entries.containsKey(key)) {
-            itemList.add(new Record(key, RecordType.KeyValue));
+        int hash = hash(key);
+        int slot = find(key, hash);
+        if (slot != NONE) {
+            if (!value.equals(contents[slot])) {
+                contents[slot] = value;
+                parsedKinds[slot] = PARSED_NONE;
+                modified = true;
+            }
+            return;
         }
-        entries.put(key, value);
+        slot = append(key, value, KEY_VALUE);
+        hashes[slot] = hash;
+        index(slot);
+        count++;
     }
 
     /**
@@ -47,19 +114,180 @@ public class Section implements Iterable<Map.Entry<String, String>> {
         setItem(key, value.toString());
     }
 
+    /**
+     * 获取整数值(十进制，可以带正负号，格式与 {@link Integer#parseInt(String)} 相同)
+     *
+     * @param key 键名
+     * @param def 键不存在或无法解析时的返回值
+     * @return 值或默认值
+     */
+    public int getInt(String key, int def) {
+        int slot = find(key == null ? "" : key);
+        if (slot == NONE || !parseLong(slot)) {
+            return def;
+        }
+        long value = parsedBits[slot];
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? def : (int) value;
+    }
+
+    /**
+     * 获取长整数值(十进制，可以带正负号，格式与 {@link Long#parseLong(String)} 相同)
+     *
+     * @param key 键名
+     * @param def 键不存在或无法解析时的返回值
+     * @return 值或默认值
+     */
+    public long getLong(String key, long def) {
+        int slot = find(key == null ? "" : key);
+        return slot != NONE && parseLong(slot) ? parsedBits[slot] : def;
+    }
+
+    /**
+     * 获取浮点数值(格式与 {@link Double#parseDouble(String)} 相同)
+     *
+     * @param key 键名
+     * @param def 键不存在或无法解析时的返回值
+     * @return 值或默认值
+     */
+    public double getDouble(String key, double def) {
+        int slot = find(key == null ? "" : key);
+        if (slot == NONE) {
+            return def;
+        }
+        if (parsedKinds[slot] != PARSED_DOUBLE && parsedKinds[slot] != INVALID_DOUBLE) {
+            try {
+                parsedBits[slot] = Double.doubleToRawLongBits(Double.parseDouble(contents[slot]));
+                parsedKinds[slot] = PARSED_DOUBLE;
+            } catch (NumberFormatException e) {
+                // 解析失败也缓存，之后不再尝试
+                parsedKinds[slot] = INVALID_DOUBLE;
+            }
+        }
+        return parsedKinds[slot] == PARSED_DOUBLE ? Double.longBitsToDouble(parsedBits[slot]) : def;
+    }
+
+    /**
+     * 获取布尔值("true" 或 "false"，忽略大小写)
+     *
+     * @param key 键名
+     * @param def 键不存在或不是 "true" / "false" 时的返回值
+     * @return 值或默认值
+     */
+    public boolean getBoolean(String key, boolean def) {
+        int slot = find(key == null ? "" : key);
+        if (slot == NONE) {
+            return def;
+        }
+        if (parsedKinds[slot] != PARSED_BOOLEAN && parsedKinds[slot] != INVALID_BOOLEAN) {
+            String value = contents[slot];
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                parsedBits[slot] = value.length() == 4 ? 1 : 0;
+                parsedKinds[slot] = PARSED_BOOLEAN;
+            } else {
+                parsedKinds[slot] = INVALID_BOOLEAN;
+            }
+        }
+        return parsedKinds[slot] == PARSED_BOOLEAN ? parsedBits[slot] != 0 : def;
+    }
+
+    /**
+     * 获取枚举值，值可以是常量的序号(保存枚举时使用的形式)或名字
+     *
+     * @param key  键名
+     * @param type 枚举类型
+     * @param def  键不存在或无法解析时的返回值
+     * @param <E>  枚举类型
+     * @return 值或默认值
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> E getEnum(String key, Class<E> type, E def) {
+        Objects.requireNonNull(type, "type cannot be null");
+        int slot = find(key == null ? "" : key);
+        if (slot == NONE) {
+            return def;
+        }
+        if (parseLong(slot)) {
+            Object[] constants = enumConstants.get(type);
+            long ordinal = parsedBits[slot];
+            return ordinal >= 0 && ordinal < constants.length ? (E) constants[(int) ordinal] : def;
+        }
+        Enum<?> value = enumNames.get(type).get(contents[slot]);
+        return value != null ? (E) value : def;
+    }
+
+    // 将值解析为 long 并缓存，返回是否成功
+    private boolean parseLong(int slot) {
+        byte kind = parsedKinds[slot];
+        if (kind == PARSED_LONG) {
+            return true;
+        } else if (kind == INVALID_LONG) {
+            return false;
+        }
+        String value = contents[slot];
+        int length = value.length();
+        boolean valid = length > 0;
+        boolean negative = false;
+        int i = 0;
+        // 按负数累加，与 Long.parseLong 相同
+        long limit = -Long.MAX_VALUE;
+        if (valid && value.charAt(0) < '0') {
+            char sign = value.charAt(0);
+            if (sign == '-') {
+                negative = true;
+                limit = Long.MIN_VALUE;
+            } else if (sign != '+') {
+                valid = false;
+            }
+            valid &= length > 1;
+            i++;
+        }
+        long result = 0;
+        long multiplyMin = limit / 10;
+        while (valid && i < length) {
+            int digit = Character.digit(value.charAt(i++), 10);
+            if (digit < 0 || result < multiplyMin) {
+                valid = false;
+                break;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                valid = false;
+                break;
+            }
+            result -= digit;
+        }
+        if (valid) {
+            parsedBits[slot] = negative ? result : -result;
+            parsedKinds[slot] = PARSED_LONG;
+        } else {
+            parsedKinds[slot] = INVALID_LONG;
+        }
+        return valid;
+    }
+
     /**
      * 获取此区块内的条目(键值对)总数
      *
      * @return 条目数
      */
     public int count() {
-        return entries.size();
+        return count;
     }
 
     /**
      * 构造一个 Section 对象
      */
     public Section() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * 构造一个预留了空间的 Section 对象
+     *
+     * @param capacity 预计的记录数量
+     */
+    Section(int capacity) {
+        allocate(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1)));
     }
 
     /**
@@ -80,7 +308,7 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      * @return 包含时返回 True, 不包含返回 False
      */
     public boolean contains(String key) {
-        return entries.containsKey(key == null ? "" : key);
+        return find(key == null ? "" : key) != NONE;
     }
 
     /**
@@ -90,11 +318,18 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      * @return 成功移除返回 True, 否则返回 False
      */
     public boolean remove(String key) {
-        return entries.remove(key == null ? "" : key) != null;
+        int slot = find(key == null ? "" : key);
+        if (slot == NONE) {
+            return false;
+        }
+        unindex(slot);
+        unlink(slot);
+        count--;
+        return true;
     }
 
     /**
-     * 修改键值中对的键名
+     * 修改键值中对的键名(保留条目的位置，如果新的键名已经存在则原来的条目会被移除)
      *
      * @param oldName 键名
      * @param newName 键的新名字
@@ -107,12 +342,21 @@ public class Section implements Iterable<Map.Entry<String, String>> {
         if (newName == null) {
             newName = "";
         }
-        if (!oldName.equals(newName) && entries.containsKey(oldName)) {
-            String value = entries.remove(oldName);
-            entries.put(newName, value);
-            return true;
+        if (oldName.equals(newName)) {
+            return false;
+        }
+        int slot = find(oldName);
+        if (slot == NONE) {
+            return false;
         }
-        return false;
+        remove(newName);
+        unindex(slot);
+        keys[slot] = newName;
+        hashes[slot] = hash(newName);
+        index(slot);
+        modCount++;
+        modified = true;
+        return true;
     }
 
     /**
@@ -122,10 +366,22 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      */
     public Section clone() {
         Section section = new Section();
-        section.entries.putAll(this.entries);
-        for (Record r : this.itemList) {
-            section.itemList.add(new Record(r.content, r.type));
-        }
+        section.keys = keys.clone();
+        section.contents = contents.clone();
+        section.types = types.clone();
+        section.hashes = hashes.clone();
+        section.prev = prev.clone();
+        section.next = next.clone();
+        section.parsedBits = parsedBits.clone();
+        section.parsedKinds = parsedKinds.clone();
+        section.table = table.clone();
+        section.head = head;
+        section.tail = tail;
+        section.used = used;
+        section.free = free;
+        section.records = records;
+        section.count = count;
+        section.modified = this.modified;
         return section;
     }
 
@@ -133,8 +389,13 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      * 清空当前 Section 对象的所有内容
      */
     public void clear() {
-        entries.clear();
-        itemList.clear();
+        if (records > 0) {
+            modified = true;
+        }
+        allocate(INITIAL_CAPACITY);
+        head = tail = free = NONE;
+        used = records = count = 0;
+        modCount++;
     }
 
     /**
@@ -146,18 +407,14 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      */
     void appendToLast(String content) {
         Objects.requireNonNull(content);
-        if (itemList.isEmpty()) {
+        if (tail == NONE) {
             // 如果当前区块为空，添加为非注释项
             addComment(content, false);
             return;
         }
-        Record record = itemList.get(itemList.size() - 1);
-        if (record.isKeyValue()) {
-            String value = entries.get(record.content);
-            entries.put(record.content, value + content);
-        } else {
-            record.content += content;
-        }
+        contents[tail] += content;
+        parsedKinds[tail] = PARSED_NONE;
+        modified = true;
     }
 
     /**
@@ -177,7 +434,7 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      */
     public void addComment(String content, boolean isComment) {
         Objects.requireNonNull(content);
-        itemList.add(new Record(content, isComment ? RecordType.Comment : RecordType.Other));
+        append(null, content, isComment ? COMMENT : OTHER);
     }
 
     /**
@@ -186,29 +443,52 @@ public class Section implements Iterable<Map.Entry<String, String>> {
      * @return 字符串数组
      */
     public String[] getComments() {
-        ArrayList<String> list = new ArrayList<>();
-        for (Record record : itemList) {
-            if (!record.isKeyValue()) {
-                list.add(record.content);
+        String[] comments = new String[records - count];
+        int i = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (types[slot] != KEY_VALUE) {
+                comments[i++] = contents[slot];
             }
         }
-        return list.toArray(new String[0]);
+        return comments;
     }
 
     /**
      * 移除所有的注释和文本 (除键值对数据以外的内容)
      */
     public void removeAllComments() {
-        itemList.removeIf(record -> !record.isKeyValue());
+        for (int slot = head; slot != NONE; ) {
+            int following = next[slot];
+            if (types[slot] != KEY_VALUE) {
+                unlink(slot);
+            }
+            slot = following;
+        }
+    }
+
+    /**
+     * 读取或保存后是否被修改过
+     *
+     * @return 修改过返回 True
+     */
+    public boolean isModified() {
+        return modified;
     }
 
     /**
-     * 获取所有的键
+     * 获取所有的键(按添加的顺序)
      *
      * @return 所有的键
      */
     public String[] getKeys() {
-        return entries.keySet().toArray(new String[0]);
+        String[] result = new String[count];
+        int i = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (types[slot] == KEY_VALUE) {
+                result[i++] = keys[slot];
+            }
+        }
+        return result;
     }
 
     /**
@@ -221,53 +501,289 @@ public class Section implements Iterable<Map.Entry<String, String>> {
         if (commentPrefix == null) {
             commentPrefix = "";
         }
-        ArrayList<String> list = new ArrayList<>();
-        for (Record record : itemList) {
-            if (record.isKeyValue()) {
-                list.add(record.content + "=" + entries.get(record.content));
-            } else if (record.type == RecordType.Comment) {
-                list.add(commentPrefix + record.content);
+        ArrayList<String> list = new ArrayList<>(records);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (types[slot] == KEY_VALUE) {
+                list.add(keys[slot] + "=" + contents[slot]);
+            } else if (types[slot] == COMMENT) {
+                list.add(commentPrefix + contents[slot]);
             } else {
-                list.add(record.content);
+                list.add(contents[slot]);
             }
         }
         return list;
     }
 
+    /**
+     * 按行写出内容(与 {@link #toList(String)} 的内容相同)，除第一行外每行之前写入换行符
+     *
+     * @param writer        输出
+     * @param commentPrefix 表示行注释的前缀字符
+     * @param hasLine       输出中之前是否已经写过行
+     * @return 写出后输出中是否有行
+     * @throws IOException 写入失败
+     */
+    boolean write(BufferedWriter writer, String commentPrefix, boolean hasLine) throws IOException {
+        if (commentPrefix == null) {
+            commentPrefix = "";
+        }
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (hasLine) {
+                writer.newLine();
+            }
+            hasLine = true;
+            if (types[slot] == KEY_VALUE) {
+                writer.write(keys[slot]);
+                writer.write('=');
+            } else if (types[slot] == COMMENT) {
+                writer.write(commentPrefix);
+            }
+            writer.write(contents[slot]);
+        }
+        return hasLine;
+    }
+
+    /**
+     * 记录的访问者
+     */
+    interface RecordVisitor {
+        /**
+         * @param key       键名，注释和其他文本为 null
+         * @param content   值或文本的内容
+         * @param isComment 是否为注释(键值对和其他文本为 False)
+         */
+        void visit(String key, String content, boolean isComment);
+    }
+
+    /**
+     * 按顺序访问所有的记录(包括注释和其他文本)
+     *
+     * @param visitor 访问者
+     */
+    void forEachRecord(RecordVisitor visitor) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            visitor.visit(keys[slot], contents[slot], types[slot] == COMMENT);
+        }
+    }
+
+    /**
+     * 记录的数量(包括注释和其他文本)
+     */
+    int recordCount() {
+        return records;
+    }
+
     @Override
     public Iterator<Map.Entry<String, String>> iterator() {
-        return new Ini.Itr<>(entries.entrySet().iterator());
+        return new Iterator<Map.Entry<String, String>>() {
+            private final int expectedModCount = modCount;
+            private int slot = nextKeyValue(head);
+
+            @Override
+            public boolean hasNext() {
+                return slot != NONE;
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (slot == NONE)
+                    throw new NoSuchElementException();
+                Map.Entry<String, String> entry = new Entry(slot);
+                slot = nextKeyValue(Section.this.next[slot]);
+                return entry;
+            }
+        };
     }
 
-    /**
-     * 数据的种类
+    private int nextKeyValue(int slot) {
+        while (slot != NONE && types[slot] != KEY_VALUE) {
+            slot = next[slot];
+        }
+        return slot;
+    }
+
+    /*
+        存储结构的内部操作
      */
-    enum RecordType {
-        KeyValue,
-        Comment,
-        Other
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String key) {
+        return find(key, hash(key));
+    }
+
+    private int find(String key, int hash) {
+        int mask = table.length - 1;
+        for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (hashes[slot] == hash && key.equals(keys[slot])) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    // 将位置加入索引
+    private void index(int slot) {
+        int mask = table.length - 1;
+        int i = hashes[slot] & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    // 将位置移出索引(向后移动之后的项，不留下删除标记)
+    private void unindex(int slot) {
+        int mask = table.length - 1;
+        int i = hashes[slot] & mask;
+        while (table[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = hashes[table[j] - 1] & mask;
+            // home 不在 (i, j] 之间时，这一项可以移动到 i
+            boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!between) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    // 在末尾添加一条记录，返回它的位置
+    private int append(String key, String content, byte type) {
+        int slot;
+        if (free != NONE) {
+            slot = free;
+            free = next[slot];
+        } else {
+            if (used == keys.length) {
+                grow();
+            }
+            slot = used++;
+        }
+        keys[slot] = key;
+        contents[slot] = content;
+        types[slot] = type;
+        parsedKinds[slot] = PARSED_NONE;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+        records++;
+        modCount++;
+        modified = true;
+        return slot;
+    }
+
+    // 移除一条记录(索引需要另外处理)
+    private void unlink(int slot) {
+        int before = prev[slot], after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+        keys[slot] = null;
+        contents[slot] = null;
+        next[slot] = free;
+        free = slot;
+        records--;
+        modCount++;
+        modified = true;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        contents = new String[capacity];
+        types = new byte[capacity];
+        hashes = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        parsedBits = new long[capacity];
+        parsedKinds = new byte[capacity];
+        // 索引的大小至少为容量的 2 倍，保证负载因子不超过 0.5
+        table = new int[capacity * 2];
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        contents = Arrays.copyOf(contents, capacity);
+        types = Arrays.copyOf(types, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        parsedBits = Arrays.copyOf(parsedBits, capacity);
+        parsedKinds = Arrays.copyOf(parsedKinds, capacity);
+        table = new int[capacity * 2];
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (types[slot] == KEY_VALUE) {
+                index(slot);
+            }
+        }
     }
 
     /**
-     * 表示区块中的某条具体数据
+     * 迭代时返回的键值对，修改值会写入区块
      */
-    static class Record {
-        RecordType type;
-        String content;
+    private final class Entry implements Map.Entry<String, String> {
+        private final int slot;
+        private final String key;
+
+        Entry(int slot) {
+            this.slot = slot;
+            this.key = keys[slot];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return key.equals(keys[slot]) ? contents[slot] : getItem(key);
+        }
+
+        @Override
+        public String setValue(String value) {
+            String old = getValue();
+            setItem(key, value);
+            return old;
+        }
 
-        public Record(String content, RecordType type) {
-            this.type = type;
-            this.content = content;
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
         }
 
-        public boolean isKeyValue() {
-            return this.type == RecordType.KeyValue;
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
         }
 
         @Override
         public String toString() {
-            return String.format("{Type = %s, Content = \"%s\"}", type, content);
+            return key + "=" + getValue();
         }
     }
-
 }
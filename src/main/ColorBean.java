@@ -2,6 +2,7 @@ package main;
 
 import option.Option;
 import toolkit.Common;
+import toolkit.UiMetrics;
 import windows.MainForm;
 import windows.component.GradientColorSlider;
 
@@ -49,6 +50,8 @@ public class ColorBean {
         }
 
         Option.loadOption();
+        Option.watchOption();
+        UiMetrics.registerMBean();
         MainForm window = new MainForm();
         window.formLoad();
     }
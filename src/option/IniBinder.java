@@ -0,0 +1,297 @@
+package option;
+
+import fit.ini.Section;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 设置类与 Ini 区块之间的读写器
+ * <p>
+ * 每个类只在第一次使用时扫描一次带有 {@link IniKey} 的字段，按字段类型生成读写的方法句柄并缓存，
+ * 之后的读取和保存不再使用反射。支持的字段类型：boolean, int, long, double, String, 枚举(按序号保存)。
+ * </p>
+ *
+ * @param <T> 设置类
+ * @author Snow
+ */
+final class IniBinder<T> {
+
+    private static final ClassValue<IniBinder<?>> binders = new ClassValue<IniBinder<?>>() {
+        @Override
+        protected IniBinder<?> computeValue(Class<?> type) {
+            return new IniBinder<>(type);
+        }
+    };
+
+    private final Binding[] bindings;
+
+    private IniBinder(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Binding> list = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            IniKey key = field.getAnnotation(IniKey.class);
+            if (key == null) {
+                continue;
+            }
+            if (Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalArgumentException("Static field is not supported: " + field);
+            }
+            MethodHandle getter, setter;
+            try {
+                getter = lookup.findGetter(type, field.getName(), field.getType());
+                setter = lookup.findSetter(type, field.getName(), field.getType());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot access field: " + field, e);
+            }
+            list.add(binding(key.value(), field.getType(), getter, setter));
+        }
+        bindings = list.toArray(new Binding[0]);
+    }
+
+    /**
+     * 获取类的读写器(每个类只生成一次)
+     *
+     * @param type 设置类
+     * @param <T>  设置类
+     * @return 读写器
+     * @throws IllegalArgumentException 字段无法访问或类型不支持
+     */
+    @SuppressWarnings("unchecked")
+    static <T> IniBinder<T> of(Class<T> type) {
+        return (IniBinder<T>) binders.get(type);
+    }
+
+    /**
+     * 从区块读取所有字段，区块中没有的键或者值无法解析时保留字段原来的值
+     *
+     * @param section 区块
+     * @param bean    设置对象
+     */
+    void read(Section section, T bean) {
+        for (Binding binding : bindings) {
+            try {
+                binding.read(section, bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 只读取指定的字段
+     *
+     * @param section 区块
+     * @param bean    设置对象
+     * @param keys    要读取的键名
+     */
+    void read(Section section, T bean, Collection<String> keys) {
+        for (Binding binding : bindings) {
+            if (!keys.contains(binding.key)) {
+                continue;
+            }
+            try {
+                binding.read(section, bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 比较两个区块中绑定的键，新区块中被删除的键不算作变化(读取时会保留原来的值)
+     *
+     * @param old 原来的区块
+     * @param now 新的区块
+     * @return 值不同的键名
+     */
+    Set<String> diff(Section old, Section now) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Binding binding : bindings) {
+            String value = now.getItem(binding.key);
+            if (value != null && !value.equals(old.getItem(binding.key))) {
+                keys.add(binding.key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 把所有字段写入区块
+     *
+     * @param section 区块
+     * @param bean    设置对象
+     */
+    void write(Section section, T bean) {
+        for (Binding binding : bindings) {
+            try {
+                binding.write(section, bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Binding binding(String key, Class<?> type, MethodHandle getter, MethodHandle setter) {
+        // 统一为以 Object 为接收者的签名，以便使用 invokeExact
+        MethodType getterType = MethodType.methodType(type.isPrimitive() ? type : Object.class, Object.class);
+        getter = getter.asType(getterType);
+        setter = setter.asType(getterType.changeReturnType(void.class).appendParameterTypes(getterType.returnType()));
+        if (type == boolean.class) {
+            return new BooleanBinding(key, getter, setter);
+        } else if (type == int.class) {
+            return new IntBinding(key, getter, setter);
+        } else if (type == long.class) {
+            return new LongBinding(key, getter, setter);
+        } else if (type == double.class) {
+            return new DoubleBinding(key, getter, setter);
+        } else if (type == String.class) {
+            return new StringBinding(key, getter, setter);
+        } else if (type.isEnum()) {
+            return new EnumBinding(key, type, getter, setter);
+        }
+        throw new IllegalArgumentException("Not support field type: " + type);
+    }
+
+    private static abstract class Binding {
+        final String key;
+        final MethodHandle getter;
+        final MethodHandle setter;
+
+        Binding(String key, MethodHandle getter, MethodHandle setter) {
+            this.key = key;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        abstract void read(Section section, Object bean) throws Throwable;
+
+        abstract void write(Section section, Object bean) throws Throwable;
+    }
+
+    private static final class BooleanBinding extends Binding {
+        BooleanBinding(String key, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            boolean value = (boolean) getter.invokeExact(bean);
+            setter.invokeExact(bean, section.getBoolean(key, value));
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            section.setItem(key, String.valueOf((boolean) getter.invokeExact(bean)));
+        }
+    }
+
+    private static final class IntBinding extends Binding {
+        IntBinding(String key, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            int value = (int) getter.invokeExact(bean);
+            setter.invokeExact(bean, section.getInt(key, value));
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            section.setItem(key, String.valueOf((int) getter.invokeExact(bean)));
+        }
+    }
+
+    private static final class LongBinding extends Binding {
+        LongBinding(String key, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            long value = (long) getter.invokeExact(bean);
+            setter.invokeExact(bean, section.getLong(key, value));
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            section.setItem(key, String.valueOf((long) getter.invokeExact(bean)));
+        }
+    }
+
+    private static final class DoubleBinding extends Binding {
+        DoubleBinding(String key, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            double value = (double) getter.invokeExact(bean);
+            setter.invokeExact(bean, section.getDouble(key, value));
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            section.setItem(key, String.valueOf((double) getter.invokeExact(bean)));
+        }
+    }
+
+    private static final class StringBinding extends Binding {
+        StringBinding(String key, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            String value = section.getItem(key);
+            if (value != null && !value.isEmpty()) {
+                setter.invokeExact(bean, (Object) value);
+            }
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            Object value = (Object) getter.invokeExact(bean);
+            section.setItem(key, value == null ? "" : (String) value);
+        }
+    }
+
+    private static final class EnumBinding<E extends Enum<E>> extends Binding {
+        private final Class<E> type;
+
+        EnumBinding(String key, Class<E> type, MethodHandle getter, MethodHandle setter) {
+            super(key, getter, setter);
+            this.type = type;
+        }
+
+        @Override
+        void read(Section section, Object bean) throws Throwable {
+            E value = type.cast((Object) getter.invokeExact(bean));
+            setter.invokeExact(bean, (Object) section.getEnum(key, type, value));
+        }
+
+        @Override
+        void write(Section section, Object bean) throws Throwable {
+            Object value = (Object) getter.invokeExact(bean);
+            if (value != null) {
+                section.setItem(key, String.valueOf(type.cast(value).ordinal()));
+            }
+        }
+    }
+}
@@ -4,11 +4,17 @@ import fit.ini.FitIni;
 import fit.ini.Ini;
 import fit.ini.Section;
 import fit.simplification.Check;
-import fit.simplification.Convert;
-import toolkit.ReflectionUtil;
 
+import javax.swing.*;
 import java.io.File;
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class Option {
 
@@ -21,6 +27,11 @@ public class Option {
         AVERAGE
     }
 
+    public enum SampleMethod {
+        AVERAGE,
+        MEDIAN
+    }
+
     static class SectionOption {
         @IniKey("ShowPrefix")
         boolean hex = true;
@@ -32,6 +43,14 @@ public class Option {
         boolean restore = true;
         @IniKey("CalGray")
         GrayscaleMethod grayMethod = GrayscaleMethod.SPACE_COMPONENT;
+        @IniKey("LivePickRate")
+        int livePickRate = 30;
+        @IniKey("PickSampleSize")
+        int pickSampleSize = 1;
+        @IniKey("PickSampleMethod")
+        SampleMethod pickSampleMethod = SampleMethod.AVERAGE;
+        @IniKey("LatencyOverlay")
+        boolean latencyOverlay;
     }
 
     static class SectionBackup {
@@ -45,6 +64,10 @@ public class Option {
     private static final SectionOption sectionOption = new SectionOption();
     private static final SectionBackup sectionBackup = new SectionBackup();
     private static boolean top = false;
+    // 上次从文件读取的 Option 区块，用于比较热重载时变化的键
+    private static volatile Section loadedOption = new Section();
+    private static final List<Consumer<Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
+    private static OptionWatcher watcher;
 
 
     /**
@@ -72,6 +95,9 @@ public class Option {
         // 获得ini文件中第一个section
         Section iniSection = ini.getSection("Option");
         readFromSection(iniSection, sectionOption);
+        if (iniSection != null) {
+            loadedOption = iniSection;
+        }
         if (sectionOption.restore) {
             Section backup = ini.getSection("Backup");
             readFromSection(backup, sectionBackup);
@@ -82,9 +108,78 @@ public class Option {
     }
 
     /**
-     * 保存设置到文件（退出时调用一次）
+     * 开始监视设置文件，文件被修改后在后台重新读取，并把变化的 Option 设置应用到程序中（在 {@link #loadOption()} 之后调用）
+     */
+    public static synchronized void watchOption() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            watcher = OptionWatcher.start(Paths.get(CONFIG_PATH), Option::reloadOption);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法监视设置文件: " + e);
+        }
+    }
+
+    /**
+     * 停止监视设置文件
+     */
+    public static synchronized void unwatchOption() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * 添加设置变化的监听器（在 EDT 中调用，参数为变化的键名）
+     *
+     * @param listener 监听器
+     */
+    public static void addChangeListener(Consumer<Set<String>> listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "listener cannot be null"));
+    }
+
+    /**
+     * 移除设置变化的监听器
+     *
+     * @param listener 监听器
+     */
+    public static void removeChangeListener(Consumer<Set<String>> listener) {
+        changeListeners.remove(listener);
+    }
+
+    // 重新读取文件(在监视线程中调用)，只把变化的键应用到设置中
+    private static void reloadOption() {
+        if (!new File(CONFIG_PATH).exists()) {
+            return;
+        }
+        Section now = FitIni.loadFromFileSimply(FILENAME).getSection("Option");
+        if (now == null) {
+            return;
+        }
+        IniBinder<SectionOption> binder = IniBinder.of(SectionOption.class);
+        Set<String> keys = Collections.unmodifiableSet(binder.diff(loadedOption, now));
+        loadedOption = now;
+        if (keys.isEmpty()) {
+            return;
+        }
+        // 设置在 EDT 中读取，因此也在 EDT 中修改
+        SwingUtilities.invokeLater(() -> {
+            binder.read(now, sectionOption, keys);
+            for (Consumer<Set<String>> listener : changeListeners) {
+                listener.accept(keys);
+            }
+        });
+    }
+
+    /**
+     * 保存设置到文件（退出时调用一次，设置没有变化时不写入）
+     *
+     * @throws IOException 写入文件失败
      */
-    public static void saveOption() {
+    public static void saveOption() throws IOException {
+        unwatchOption();
         Ini ini = FitIni.loadFromFile(FILENAME);
         // 添加ini文件中 Option section
         Section iniSection = ini.getOrAdd("Option");
@@ -94,51 +189,22 @@ public class Option {
             iniSection = ini.getOrAdd("Backup");
             saveToSection(iniSection, sectionBackup);
         }
-        ini.saveToFile(FILENAME);
+        ini.saveIfModified(FILENAME);
     }
 
-    @SuppressWarnings("unchecked")
-    private static void readFromSection(Section iniSection, Object sectionBean) {
-        // 得到这个section中所有的key值
-        for (Field field : sectionBean.getClass().getDeclaredFields()) {
-            IniKey key = field.getAnnotation(IniKey.class);
-            if (key == null) {
-                continue;
-            }
-            String itemValue = iniSection.getItem(key.value());
-            if (itemValue == null || itemValue.isEmpty()) {
-                continue;
-            }
-            try {
-                field.setAccessible(true);
-                if (field.getType().isEnum()) {
-                    int ord = Integer.parseInt(itemValue);
-                    Enum<?> value = Convert.toEnumByImplicit((Class<Enum<?>>) field.getType(), ord, null);
-                    field.set(null, value);
-                } else {
-                    ReflectionUtil.setFieldValueFromString(field, sectionBean, itemValue);
-                }
-            } catch (IllegalAccessException | RuntimeException ignored) {
-            }
+    private static <T> void readFromSection(Section iniSection, T sectionBean) {
+        if (iniSection == null) {
+            return;
         }
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) sectionBean.getClass();
+        IniBinder.of(type).read(iniSection, sectionBean);
     }
 
-    private static void saveToSection(Section iniSection, Object sectionBean) {
-        for (Field field : sectionBean.getClass().getDeclaredFields()) {
-            IniKey key = field.getAnnotation(IniKey.class);
-            if (key == null) {
-                continue;
-            }
-            field.setAccessible(true);
-            try {
-                Object value = field.get(sectionBean);
-                if (value instanceof Enum) {
-                    value = ((Enum<?>) value).ordinal();
-                }
-                iniSection.setItem(key.value(), value);
-            } catch (IllegalAccessException ignored) {
-            }
-        }
+    private static <T> void saveToSection(Section iniSection, T sectionBean) {
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) sectionBean.getClass();
+        IniBinder.of(type).write(iniSection, sectionBean);
     }
 
 
@@ -238,6 +304,70 @@ public class Option {
         sectionOption.restore = value;
     }
 
+    /**
+     * 获取 实时取色的采样频率(次/秒)
+     *
+     * @return 频率
+     */
+    public static int LivePickRate() {
+        return sectionOption.livePickRate;
+    }
+
+    /**
+     * 设置 实时取色的采样频率(次/秒)
+     */
+    public static void LivePickRate(int value) {
+        sectionOption.livePickRate = value;
+    }
+
+    /**
+     * 获取 屏幕取色的范围(边长，1 为单个像素)
+     *
+     * @return 边长
+     */
+    public static int PickSampleSize() {
+        return sectionOption.pickSampleSize;
+    }
+
+    /**
+     * 设置 屏幕取色的范围(边长，1 为单个像素)
+     */
+    public static void PickSampleSize(int value) {
+        sectionOption.pickSampleSize = value;
+    }
+
+    /**
+     * 获取 屏幕取色范围内多个像素的计算方式
+     *
+     * @return 计算方式
+     */
+    public static SampleMethod PickSampleMethod() {
+        return sectionOption.pickSampleMethod;
+    }
+
+    /**
+     * 设置 屏幕取色范围内多个像素的计算方式
+     */
+    public static void PickSampleMethod(SampleMethod value) {
+        sectionOption.pickSampleMethod = value;
+    }
+
+    /**
+     * 获取 是否在窗口上显示界面延迟的调试信息
+     *
+     * @return 是否显示
+     */
+    public static boolean LatencyOverlay() {
+        return sectionOption.latencyOverlay;
+    }
+
+    /**
+     * 设置 是否在窗口上显示界面延迟的调试信息(下次打开窗口时生效)
+     */
+    public static void LatencyOverlay(boolean value) {
+        sectionOption.latencyOverlay = value;
+    }
+
     /**
      * 获取 上次关闭程序时的颜色
      *
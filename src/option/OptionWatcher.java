@@ -0,0 +1,149 @@
+package option;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 监视设置文件的变化
+ * <p>
+ * 在后台线程中监视文件所在的目录，收到事件后等待一段时间没有新的事件(编辑器保存时通常会连续写入多次)，
+ * 再比较文件的大小、修改时间和内容的校验值，确实有变化时才调用回调。
+ * </p>
+ *
+ * @author Snow
+ */
+final class OptionWatcher implements AutoCloseable {
+
+    // 最后一个事件之后等待的时间
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final Path file;
+    private final Runnable onChanged;
+    private final WatchService service;
+    private final Thread thread;
+
+    // 上次读取时文件的状态
+    private long size = -1, modified = -1, checksum = -1;
+
+    private OptionWatcher(Path file, Runnable onChanged) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChanged = onChanged;
+        service = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        changed();
+        thread = new Thread(this::run, "OptionWatcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * 开始监视文件
+     *
+     * @param file      文件
+     * @param onChanged 文件内容变化时的回调(在监视线程中调用)
+     * @return 监视器
+     * @throws IOException 无法监视文件所在的目录
+     */
+    static OptionWatcher start(Path file, Runnable onChanged) throws IOException {
+        OptionWatcher watcher = new OptionWatcher(file, onChanged);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = drain(key);
+                // 去抖动：直到一段时间内没有新的事件
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+                if (relevant && changed()) {
+                    try {
+                        onChanged.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // 停止监视
+        }
+    }
+
+    /**
+     * 取出所有事件
+     *
+     * @return 是否有设置文件的事件
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * 检查文件是否和上次不同，并记录当前的状态
+     *
+     * @return 有变化时返回 True
+     */
+    private boolean changed() {
+        long size = -1, modified = -1, checksum = -1;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            size = attributes.size();
+            modified = attributes.lastModifiedTime().toMillis();
+            if (size == this.size && modified == this.modified) {
+                return false;
+            }
+            checksum = checksum(file);
+        } catch (IOException ignored) {
+            // 文件不存在或无法读取
+        }
+        boolean changed = checksum != this.checksum;
+        this.size = size;
+        this.modified = modified;
+        this.checksum = checksum;
+        return changed;
+    }
+
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 停止监视
+     */
+    @Override
+    public void close() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package toolkit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 界面绘制和更新的延迟统计
+ * 用法：
+ * <pre>
+ * long start = UiMetrics.start();
+ * ...
+ * UiMetrics.record(histogram, start);
+ * </pre>
+ * 统计数据可以通过 JMX ({@link #OBJECT_NAME}) 或界面上的调试信息查看
+ *
+ * @author Snow
+ */
+public final class UiMetrics implements UiMetricsMBean {
+
+    public static final String OBJECT_NAME = "ColorBean:type=UiMetrics";
+
+    private static final UiMetrics INSTANCE = new UiMetrics();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    // 没有启用统计时 start() 的返回值(System.nanoTime() 的起点是任意的，0 也可能是有效的时间)
+    private static final long DISABLED = Long.MIN_VALUE;
+    private static volatile boolean enabled = true;
+
+    private UiMetrics() {
+    }
+
+    /**
+     * 获取直方图，不存在时创建
+     *
+     * @param name 名字
+     * @return 直方图
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 开始的时间，没有启用统计时返回 Long.MIN_VALUE
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * 结束计时并记录
+     *
+     * @param histogram 直方图
+     * @param start     {@link #start()} 的返回值
+     */
+    public static void record(LatencyHistogram histogram, long start) {
+        if (start != DISABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 所有的直方图(按名字排序)
+     */
+    public static Iterable<LatencyHistogram> histograms() {
+        return histograms.values();
+    }
+
+    /**
+     * 注册到平台的 MBeanServer (重复注册时忽略)
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static void enabled(boolean value) {
+        enabled = value;
+    }
+
+    private static LatencyHistogram find(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null)
+            throw new IllegalArgumentException("No histogram named " + name);
+        return histogram;
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        UiMetrics.enabled = enabled;
+    }
+
+    @Override
+    public String[] getHistogramNames() {
+        return histograms.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getReport() {
+        return histograms.values().stream().map(LatencyHistogram::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public long getCount(String name) {
+        return find(name).getCount();
+    }
+
+    @Override
+    public double getMeanMillis(String name) {
+        return toMillis(find(name).getMeanNanos());
+    }
+
+    @Override
+    public double getPercentileMillis(String name, double percentile) {
+        return toMillis(find(name).getPercentileNanos(percentile));
+    }
+
+    @Override
+    public double getMaxMillis(String name) {
+        return toMillis(find(name).getMaxNanos());
+    }
+
+    @Override
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,37 @@
+package toolkit;
+
+/**
+ * 界面延迟统计的 JMX 接口
+ *
+ * @author Snow
+ * @see UiMetrics
+ */
+public interface UiMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * 所有直方图的名字
+     */
+    String[] getHistogramNames();
+
+    /**
+     * 所有直方图的统计信息(每个直方图一行)
+     */
+    String[] getReport();
+
+    long getCount(String name);
+
+    double getMeanMillis(String name);
+
+    double getPercentileMillis(String name, double percentile);
+
+    double getMaxMillis(String name);
+
+    /**
+     * 清空所有直方图
+     */
+    void reset();
+}
@@ -11,8 +11,10 @@ import main.ColorBean;
 import option.Option;
 import toolkit.Common;
 import windows.component.HsbPanel;
+import windows.component.LatencyOverlay;
 import windows.component.Palette;
 import windows.component.RgbPanel;
+import windows.component.SbPanel;
 import windows.formula.FormulaForm;
 import windows.listener.MouseClickListener;
 import windows.screen.PickColorForm;
@@ -21,6 +23,8 @@ import javax.swing.*;
 import javax.swing.text.JTextComponent;
 import java.awt.*;
 import java.awt.event.*;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
@@ -44,10 +48,25 @@ public class MainForm extends JFrame {
     private JLabel boxColor;
     private JButton btnPick;
     private final Palette palette = new Palette();
+    // 信息面板当前显示的值，只更新有变化的文本框
+    private Rgb shownRgb;
+    private Hsb shownHsb;
+    private Cmyk shownCmyk;
+    private Grayscale shownGray;
+    private Lab shownLab;
+    private boolean shownRgbFloat, shownHsbFloat, shownHexSym;
+    // 格式化文本使用的缓冲区
+    private final StringBuilder infoBuffer = new StringBuilder(32);
+    // 格式化小数时使用的区域设置及其小数点，区域设置变化时才重新获取
+    private Locale formatLocale;
+    private char formatPoint;
+    // 区域设置的数字是否为 ASCII 数字，不是时交给 String.format 处理
+    private boolean formatAsciiDigits;
 
     // 自定义面板
     private HsbPanel panelHsb;
     private RgbPanel panelRgb;
+    private SbPanel panelSb;
 
     private IConvertBridge bridge = new NormalConvertBridge(Rgb.WHITE);
 
@@ -61,7 +80,7 @@ public class MainForm extends JFrame {
             try {
                 Option.saveOption();
             } catch (Exception e) {
-                System.err.println("保存设置失败");
+                System.err.println("保存设置失败: " + e);
             }
         }));
         // 按钮事件
@@ -101,7 +120,10 @@ public class MainForm extends JFrame {
             String message = null;
             try {
                 this.setVisible(false);
-                PickColorForm pickColorForm = PickColorForm.createScreenCapture();
+                // 按住 Shift 时实时取色
+                PickColorForm pickColorForm = (e.getModifiers() & ActionEvent.SHIFT_MASK) != 0
+                        ? PickColorForm.createLiveCapture(Option.LivePickRate())
+                        : PickColorForm.createScreenCapture();
                 pickColorForm.setOnChangeColor(this::updateAll);
                 pickColorForm.setOnDispose(() -> this.setVisible(true));
             } catch (UnsupportedOperationException ex) {
@@ -162,30 +184,100 @@ public class MainForm extends JFrame {
      */
     private void updateInfo(IConvertBridge bridge) {
         this.bridge = bridge;
-        // 信息面板
+        // 信息面板(只更新值或显示方式有变化的文本框，避免无用的文档事件和重新布局)
         final String separator = ",";
         Rgb rgb = bridge.getRgb();
+        boolean rgbChanged = !rgb.equals(shownRgb);
         // RGB
-        if (Option.RGBFloat()) {
-            txtRgb.setText(String.format("%.2f,%.2f,%.2f", rgb.r() / 255.0, rgb.g() / 255.0, rgb.b() / 255.0));
-        } else {
-            txtRgb.setText(rgb.toString(separator));
+        boolean rgbFloat = Option.RGBFloat();
+        if (rgbChanged || rgbFloat != shownRgbFloat) {
+            if (rgbFloat) {
+                txtRgb.setText(formatFloats(rgb.r() / 255.0, rgb.g() / 255.0, rgb.b() / 255.0));
+            } else {
+                txtRgb.setText(rgb.toString(separator));
+            }
+            shownRgbFloat = rgbFloat;
         }
         // HSB
         Hsb hsb = bridge.getHsb();
-        if (Option.HSBFloat()) {
-            txtHsb.setText(String.format("%.2f,%.2f,%.2f", hsb.h() / 360.0, hsb.s() / 100.0, hsb.b() / 100.0));
-        } else {
-            txtHsb.setText(hsb.toString(separator));
+        boolean hsbFloat = Option.HSBFloat();
+        if (!hsb.equals(shownHsb) || hsbFloat != shownHsbFloat) {
+            if (hsbFloat) {
+                txtHsb.setText(formatFloats(hsb.h() / 360.0, hsb.s() / 100.0, hsb.b() / 100.0));
+            } else {
+                txtHsb.setText(hsb.toString(separator));
+            }
+            shownHsb = hsb;
+            shownHsbFloat = hsbFloat;
+        }
+        boolean hexSym = Option.HexShowSym();
+        if (rgbChanged || hexSym != shownHexSym) {
+            String hex = bridge.toHex();
+            txtHex.setText(hexSym ? "#" + hex : hex);
+            shownHexSym = hexSym;
+        }
+        shownRgb = rgb;
+        Cmyk cmyk = bridge.getCmyk();
+        if (!cmyk.equals(shownCmyk)) {
+            txtCmyk.setText(cmyk.toString(separator));
+            shownCmyk = cmyk;
+        }
+        Grayscale gray = bridge.getGrayscale();
+        if (!gray.equals(shownGray)) {
+            txtGray.setText(String.valueOf(gray.value()));
+            shownGray = gray;
+        }
+        Lab lab = bridge.getLab();
+        if (!lab.equals(shownLab)) {
+            txtLab.setText(lab.toString(separator));
+            shownLab = lab;
+        }
+        // 颜色框(颜色有变化时会自动重绘)
+        palette.setColor(rgb);
+    }
+
+    /**
+     * 将三个小数格式化为 "0.00,0.00,0.00" 的形式，与 String.format("%.2f,%.2f,%.2f", ...) 的结果相同
+     */
+    private String formatFloats(double a, double b, double c) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (!locale.equals(formatLocale)) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            formatPoint = symbols.getDecimalSeparator();
+            formatAsciiDigits = symbols.getZeroDigit() == '0';
+            formatLocale = locale;
+        }
+        if (!formatAsciiDigits) {
+            return String.format("%.2f,%.2f,%.2f", a, b, c);
+        }
+        char point = formatPoint;
+        StringBuilder buffer = infoBuffer;
+        buffer.setLength(0);
+        appendFixed2(buffer, a, point);
+        buffer.append(',');
+        appendFixed2(buffer, b, point);
+        buffer.append(',');
+        appendFixed2(buffer, c, point);
+        return buffer.toString();
+    }
+
+    /**
+     * 保留两位小数(四舍五入)追加到缓冲区
+     * 非负的普通数值直接用整数计算，接近进位边界等其他情况交给 String.format 保证结果一致
+     */
+    private static void appendFixed2(StringBuilder buffer, double value, char point) {
+        double scaled = value * 100;
+        if (!(value >= 0) || scaled >= Long.MAX_VALUE / 2d || Math.abs(scaled - Math.floor(scaled) - 0.5) < 1e-6) {
+            buffer.append(String.format("%.2f", value));
+            return;
+        }
+        long fixed = Math.round(scaled);
+        long fraction = fixed % 100;
+        buffer.append(fixed / 100).append(point);
+        if (fraction < 10) {
+            buffer.append('0');
         }
-        String hex = bridge.toHex();
-        txtHex.setText(Option.HexShowSym() ? "#" + hex : hex);
-        txtCmyk.setText(bridge.getCmyk().toString(separator));
-        txtGray.setText(String.valueOf(bridge.getGrayscale().value()));
-        txtLab.setText(bridge.getLab().toString(separator));
-        // 颜色框
-        palette.setColor(bridge.getRgb());
-        boxColor.repaint();
+        buffer.append(fraction);
     }
 
 
@@ -198,6 +290,7 @@ public class MainForm extends JFrame {
         updateInfo(bridge);
         panelHsb.updatePanel(bridge);
         panelRgb.updatePanel(bridge);
+        panelSb.updatePanel(bridge);
     }
 
     /**
@@ -209,25 +302,39 @@ public class MainForm extends JFrame {
         this.setSize(380, 520);
         this.setResizable(false);
         this.setContentPane(panelRoot);
+        if (Option.LatencyOverlay()) {
+            LatencyOverlay.install(getRootPane());
+        }
         palette.autoRelateLabel(boxColor);
         panelHsb = new HsbPanel();
         panelRgb = new RgbPanel();
+        panelSb = new SbPanel();
         panelRgb.setUpdateCallback(bridge -> {
             // 更新主界面面板信息
             updateInfo(bridge);
             // 单独更新 HSB 面板
             panelHsb.updatePanel(bridge);
+            panelSb.updatePanel(bridge);
         });
         panelHsb.setUpdateCallback(bridge -> {
             // 更新主界面面板信息
             updateInfo(bridge);
             // 单独更新 RGB 面板
             panelRgb.updatePanel(bridge);
+            // 饱和度 - 亮度平面跟随色相
+            panelSb.updatePanel(bridge);
+        });
+        panelSb.setUpdateCallback(bridge -> {
+            // 更新主界面面板信息
+            updateInfo(bridge);
+            panelHsb.updatePanel(bridge);
+            panelRgb.updatePanel(bridge);
         });
         tabPalette.setOpaque(false);
         tabPalette.setBackground(new Color(0x363636));
         tabPalette.addTab("HSB", panelHsb);
         tabPalette.addTab("RGB", panelRgb);
+        tabPalette.addTab("SB", panelSb);
         if (Common.getOs() != Common.OsType.MAC) {
             this.setIconImage(new ImageIcon(Common.getURL("res/icon.png")).getImage());
         }
@@ -307,20 +414,44 @@ public class MainForm extends JFrame {
         grayRgb.addActionListener(e -> {
             // 灰度值算法 分量
             Option.GrayCal(Option.GrayscaleMethod.SPACE_COMPONENT);
-            ModelsManager.register(Rgb.class, Grayscale.class, new GraySpaceComponentAlgorithm());
-            Grayscale g = ModelsManager.convert(bridge.getRgb(), Grayscale.class);
-            txtGray.setText(String.valueOf(g.value()));
+            updateGrayMethod();
         });
         grayAverage.addActionListener(e -> {
             // 灰度值算法 平均值
             Option.GrayCal(Option.GrayscaleMethod.AVERAGE);
-            ModelsManager.register(Rgb.class, Grayscale.class, new GrayAverageAlgorithm());
-            Grayscale g = ModelsManager.convert(bridge.getRgb(), Grayscale.class);
-            txtGray.setText(String.valueOf(g.value()));
+            updateGrayMethod();
         });
         itemRestoreColor.addActionListener(e -> Option.Restore(!Option.Restore()));
         itemExit.addActionListener(e -> System.exit(0));
+        // 设置文件被修改后同步菜单和显示的内容
+        Option.addChangeListener(keys -> {
+            itemHexPrefix.setSelected(Option.HexShowSym());
+            itemDecimalRgb.setSelected(Option.RGBFloat());
+            itemDecimalHsb.setSelected(Option.HSBFloat());
+            itemRestoreColor.setSelected(Option.Restore());
+            if (Option.GrayCal() == Option.GrayscaleMethod.SPACE_COMPONENT) {
+                grayRgb.setSelected(true);
+            } else {
+                grayAverage.setSelected(true);
+            }
+            updateGrayMethod();
+            updateInfo(bridge);
+        });
         return topMenu;
     }
 
+    /**
+     * 按照设置注册灰度值算法，并刷新显示的灰度值
+     */
+    private void updateGrayMethod() {
+        if (Option.GrayCal() == Option.GrayscaleMethod.SPACE_COMPONENT) {
+            ModelsManager.register(Rgb.class, Grayscale.class, new GraySpaceComponentAlgorithm());
+        } else {
+            ModelsManager.register(Rgb.class, Grayscale.class, new GrayAverageAlgorithm());
+        }
+        Grayscale g = ModelsManager.convert(bridge.getRgb(), Grayscale.class);
+        txtGray.setText(String.valueOf(g.value()));
+        shownGray = g;
+    }
+
 }
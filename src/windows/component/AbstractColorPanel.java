@@ -1,6 +1,8 @@
 package windows.component;
 
 import colorpad.extend.IConvertBridge;
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
 
 import javax.swing.*;
 import java.util.function.Consumer;
@@ -14,6 +16,10 @@ public abstract class AbstractColorPanel extends JPanel {
 
     protected boolean selfUpdate = false;
     protected Consumer<IConvertBridge> updateCallback;
+    // 合并拖动滑块等频繁的修改，每帧最多通知外部一次
+    private final FrameScheduler outsideUpdater = new FrameScheduler(this::updateOutside);
+    // 通知外部更新的耗时(每个面板类型一个)
+    private final LatencyHistogram callbackLatency = UiMetrics.histogram(getClass().getSimpleName() + ".callback");
 
     protected int sliderWidth = 280, sliderHeight = 40, txtWidth = 40, txtHeight = 20;
 
@@ -36,6 +42,8 @@ public abstract class AbstractColorPanel extends JPanel {
     }
 
     public final void updatePanel(IConvertBridge bridge) {
+        // 外部的颜色更新后，不再通知之前的修改
+        outsideUpdater.cancel();
         selfUpdate = true;
         updateCurrentColor(bridge);
         selfUpdate = false;
@@ -45,9 +53,30 @@ public abstract class AbstractColorPanel extends JPanel {
         if (selfUpdate || updateCallback == null) {
             return;
         }
+        outsideUpdater.request();
+    }
+
+    private void updateOutside() {
+        if (updateCallback == null) {
+            return;
+        }
+        long start = UiMetrics.start();
         selfUpdate = true;
-        updateCallback.accept(getCurrentColor());
-        selfUpdate = false;
+        try {
+            updateCallback.accept(getCurrentColor());
+        } finally {
+            selfUpdate = false;
+            UiMetrics.record(callbackLatency, start);
+        }
+    }
+
+    /**
+     * 获取通知外部更新的调度器(用于查看合并的次数)
+     *
+     * @return 调度器
+     */
+    public FrameScheduler getUpdateScheduler() {
+        return outsideUpdater;
     }
 
     /**
@@ -1,14 +1,24 @@
 package windows.component;
 
 import colorpad.core.Basic;
+import colorpad.core.converter.PrimitiveModelConverters;
 import fit.simplification.Check;
-import toolkit.Common;
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
 
 import javax.swing.*;
 import javax.swing.event.MouseInputListener;
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 /**
  * 色轮
@@ -19,16 +29,34 @@ public class ColorWheel extends JPanel implements MouseInputListener {
 
     private double[] hues;
     private double saturation;
+    private double brightness = 100;
 
     private double centerX, centerY;
     private int diameter;
     private int dotDiameter;
     private BiConsumer<Double, Double> onSpin;
 
-    private static final Image imgWheelSource = new ImageIcon(Common.getURL("res/ColorWheel.png")).getImage();
-    // 256 * 256 下缩放 0.875 倍比较合适
+    private static final LatencyHistogram paintLatency = UiMetrics.histogram("ColorWheel.paint");
+
+    // 色轮的直径与控件大小的比例
     private static final double wheelScaledFactor = 0.875;
-    private Image imgWheel;
+    // 缓存的色轮图像数量上限
+    private static final int CACHE_CAPACITY = 8;
+    // 按 (尺寸, 亮度) 缓存的色轮图像
+    private static final Map<Long, BufferedImage> wheelCache = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    // 正在后台绘制的色轮图像
+    private static final Map<Long, CompletableFuture<BufferedImage>> rendering = new ConcurrentHashMap<>();
+    // 最后一次绘制的色轮图像，新尺寸的图像还没有绘制完成时使用
+    private BufferedImage imgWheel;
+    // 已经登记了完成后重绘的图像(只在 EDT 中访问)
+    private long waitingKey = -1;
+    // 上次绘制失败的图像(例如尺寸过大时内存不足)，尺寸或亮度改变之前不再重试(只在 EDT 中访问)
+    private long failedKey = -1;
 
     public ColorWheel() {
         this(0);
@@ -79,6 +107,18 @@ public class ColorWheel extends JPanel implements MouseInputListener {
         updateDisplay();
     }
 
+    /**
+     * 设置色轮的亮度(默认为 100)
+     *
+     * @param brightness 亮度 (0 - 100)
+     */
+    public void setBrightness(double brightness) {
+        brightness = Basic.getFixRange(brightness, 0d, 100d);
+        if (Basic.decimalEquals(this.brightness, brightness)) return;
+        this.brightness = brightness;
+        updateDisplay();
+    }
+
     public void setDotDiameter(int dotDiameter) {
         if (dotDiameter < 1) {
             throw new IllegalArgumentException("dotDiameter must > 1");
@@ -94,22 +134,20 @@ public class ColorWheel extends JPanel implements MouseInputListener {
     @Override
     public void setBounds(int x, int y, int width, int height) {
         super.setBounds(x, y, width, height);
-        int nd = Math.min(width, height);
-        if (diameter != nd) {
-            diameter = nd;
-            imgWheel = imgWheelSource.getScaledInstance(diameter, diameter, Image.SCALE_SMOOTH);
-        }
+        diameter = Math.min(width, height);
         centerX = width / 2.0;
         centerY = height / 2.0;
     }
 
     @Override
     public void paint(Graphics g) {
+        long start = UiMetrics.start();
         super.paint(g);
         drawWheel(g);
         if (diameter >= dotDiameter) {
             drawDot(g);
         }
+        UiMetrics.record(paintLatency, start);
     }
 
     private void drawDot(Graphics g) {
@@ -135,13 +173,111 @@ public class ColorWheel extends JPanel implements MouseInputListener {
     }
 
     private void drawWheel(Graphics g) {
-        int x = (getWidth() - diameter) / 2, y = (getHeight() - diameter) / 2;
-        boolean loaded = g.drawImage(imgWheel, x, y, null);
-        if (!loaded) {
-            // 强制等待一次图像加载
-            imgWheel = new ImageIcon(imgWheel).getImage();
-            g.drawImage(imgWheel, x, y, null);
+        if (diameter <= 0) {
+            return;
+        }
+        // 按照设备像素的尺寸绘制(HiDPI 下图像比控件大)
+        double scale = g instanceof Graphics2D ? ((Graphics2D) g).getTransform().getScaleX() : 1d;
+        int size = Math.max(1, (int) Math.round(diameter * scale));
+        BufferedImage image = getWheelImage(size, brightness);
+        if (image != null) {
+            imgWheel = image;
+        }
+        if (imgWheel != null) {
+            int x = (getWidth() - diameter) / 2, y = (getHeight() - diameter) / 2;
+            g.drawImage(imgWheel, x, y, diameter, diameter, null);
+        }
+    }
+
+    /**
+     * 获取缓存的色轮图像，不存在时在后台绘制，完成后重绘控件
+     *
+     * @return 色轮图像，还没有绘制完成时返回 null
+     */
+    private BufferedImage getWheelImage(int size, double brightness) {
+        long key = (long) size << 32 | Math.round(brightness * 100);
+        BufferedImage image;
+        synchronized (wheelCache) {
+            image = wheelCache.get(key);
+        }
+        if (image == null) {
+            if (key == failedKey) {
+                return null;
+            }
+            failedKey = -1;
+            CompletableFuture<BufferedImage> future = rendering.get(key);
+            if (future == null) {
+                // 在映射之外创建并发布，完成时的回调可能立即在当前线程中执行
+                CompletableFuture<BufferedImage> created = new CompletableFuture<>();
+                future = rendering.putIfAbsent(key, created);
+                if (future == null) {
+                    future = created;
+                    CompletableFuture.supplyAsync(() -> renderWheel(size, brightness)).whenComplete((result, e) -> {
+                        if (e == null) {
+                            synchronized (wheelCache) {
+                                wheelCache.put(key, result);
+                            }
+                        } else {
+                            System.err.println("绘制色轮失败: size = " + size + ", brightness = " + brightness);
+                            (e instanceof CompletionException && e.getCause() != null ? e.getCause() : e)
+                                    .printStackTrace();
+                        }
+                        rendering.remove(key, created);
+                        if (e != null) {
+                            created.completeExceptionally(e);
+                        } else {
+                            created.complete(result);
+                        }
+                    });
+                }
+            }
+            // 每个图像只登记一次重绘
+            if (waitingKey != key) {
+                waitingKey = key;
+                future.whenComplete((result, e) -> SwingUtilities.invokeLater(() -> {
+                    if (waitingKey == key) {
+                        waitingKey = -1;
+                    }
+                    if (e != null) {
+                        failedKey = key;
+                    }
+                    repaint();
+                }));
+            }
         }
+        return image;
+    }
+
+    /**
+     * 绘制色轮：色相为 +Y 轴顺时针的夹角，饱和度为到圆心的距离，每行并行计算
+     *
+     * @param size       图像的边长
+     * @param brightness 亮度
+     * @return 色轮图像
+     */
+    static BufferedImage renderWheel(int size, double brightness) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        double center = size / 2d;
+        double radius = center * wheelScaledFactor;
+        IntStream.range(0, size).parallel().forEach(row -> {
+            double dy = center - (row + 0.5d);
+            int offset = row * size;
+            for (int column = 0; column < size; column++) {
+                double dx = column + 0.5d - center;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                // 边缘抗锯齿
+                double alpha = radius + 0.5d - distance;
+                if (alpha <= 0d) {
+                    continue;
+                }
+                double hue = (450d - Math.toDegrees(Math.atan2(dy, dx))) % 360d;
+                double saturation = Math.min(distance / radius, 1d) * 100d;
+                int rgb = PrimitiveModelConverters.hsbToRgb(hue, saturation, brightness);
+                pixels[offset + column] = (int) Math.round(Math.min(alpha, 1d) * 255d) << 24 | rgb;
+            }
+        });
+        return image;
     }
 
     private void setDotLocation(Point point) {
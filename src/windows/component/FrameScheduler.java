@@ -0,0 +1,126 @@
+package windows.component;
+
+import javax.swing.*;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在 EDT 中合并更新请求，每帧最多执行一次
+ * 执行的操作应当读取最新的状态，所以还没执行时的多次请求只需要执行一次，被合并的请求计为丢弃
+ * P.S. 所有方法都应该在 EDT 中调用
+ *
+ * @author Snow
+ */
+public class FrameScheduler {
+
+    /**
+     * 默认的帧间隔(60 帧/秒)
+     */
+    public static final long DEFAULT_FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private final Runnable action;
+    private final long frameNanos;
+    private final Timer timer;
+    private boolean pending;
+    private long lastRunTime;
+    // 统计
+    private long requests, runs, dropped;
+
+    public FrameScheduler(Runnable action) {
+        this(action, DEFAULT_FRAME_NANOS);
+    }
+
+    /**
+     * @param action     执行的操作
+     * @param frameNanos 两次执行的最小间隔(纳秒)
+     */
+    public FrameScheduler(Runnable action, long frameNanos) {
+        this.action = Objects.requireNonNull(action, "action cannot be null");
+        if (frameNanos < 0)
+            throw new IllegalArgumentException("frameNanos must >= 0");
+        this.frameNanos = frameNanos;
+        timer = new Timer(0, e -> {
+            if (pending) {
+                run();
+            }
+        });
+        timer.setRepeats(false);
+        lastRunTime = System.nanoTime() - frameNanos;
+    }
+
+    /**
+     * 请求执行：距离上次执行已经超过一帧时立即执行，否则在下一帧执行
+     */
+    public void request() {
+        requests++;
+        if (pending) {
+            dropped++;
+            return;
+        }
+        long elapsed = System.nanoTime() - lastRunTime;
+        if (elapsed >= frameNanos) {
+            run();
+        } else {
+            pending = true;
+            timer.setInitialDelay((int) TimeUnit.NANOSECONDS.toMillis(frameNanos - elapsed + 999_999));
+            timer.restart();
+        }
+    }
+
+    /**
+     * 立即执行等待中的请求
+     */
+    public void flush() {
+        if (pending) {
+            timer.stop();
+            run();
+        }
+    }
+
+    /**
+     * 取消等待中的请求
+     */
+    public void cancel() {
+        if (pending) {
+            timer.stop();
+            pending = false;
+        }
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    private void run() {
+        pending = false;
+        lastRunTime = System.nanoTime();
+        runs++;
+        action.run();
+    }
+
+    /**
+     * 请求的次数
+     */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * 实际执行的次数
+     */
+    public long getRunCount() {
+        return runs;
+    }
+
+    /**
+     * 被合并(丢弃)的请求次数
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FrameScheduler: {requests = %d, runs = %d, dropped = %d}", requests, runs, dropped);
+    }
+}
@@ -1,9 +1,12 @@
 package windows.component;
 
 
+import colorpad.core.Gradient;
 import fit.simplification.Check;
 import fit.simplification.Convert;
 import main.BootError;
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
 
 import javax.swing.*;
 import javax.swing.plaf.SliderUI;
@@ -13,7 +16,10 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * 支持显示渐变的颜色条
@@ -23,8 +29,14 @@ import java.lang.reflect.Field;
  */
 public class GradientColorSlider extends JSlider implements ComponentListener {
 
+    private static final LatencyHistogram paintLatency = UiMetrics.histogram("GradientColorSlider.paint");
+
     private Color[] bar;
+    private Gradient.Model model;
     private Rectangle rect, thisRect;
+    // 缓存的渐变条图像 和 对应的颜色、方向、尺寸
+    private Image barImage;
+    private BarKey barKey;
 
     private static volatile Boolean useReplacedUI;
 
@@ -42,13 +54,29 @@ public class GradientColorSlider extends JSlider implements ComponentListener {
      * @param colors 颜色
      */
     public void setColors(Color... colors) {
+        setColors(null, colors);
+    }
+
+    /**
+     * 设置渐变条中的颜色，以及插值使用的颜色模型
+     *
+     * @param model  插值使用的颜色模型(为空时使用 {@link GradientPaint})
+     * @param colors 颜色
+     */
+    public void setColors(Gradient.Model model, Color... colors) {
+        Color[] newBar;
         if (colors == null || colors.length == 0) {
-            bar = null;
+            newBar = null;
         } else if (colors.length == 1) {
-            bar = new Color[]{colors[0], colors[0]};
+            newBar = new Color[]{colors[0], colors[0]};
         } else {
-            bar = colors;
+            newBar = colors.clone();
+        }
+        if (this.model == model && Arrays.equals(bar, newBar)) {
+            return;
         }
+        this.model = model;
+        bar = newBar;
         if (this.isVisible()) {
             this.repaint();
         }
@@ -91,12 +119,14 @@ public class GradientColorSlider extends JSlider implements ComponentListener {
         if (ui == null || g == null) {
             return;
         }
+        long start = UiMetrics.start();
         Graphics scratchGraphics = g.create();
         try {
             drawGradientBar((BasicSliderUI) ui, scratchGraphics, this);
             ui.update(scratchGraphics, this);
         } finally {
             scratchGraphics.dispose();
+            UiMetrics.record(paintLatency, start);
         }
     }
 
@@ -113,14 +143,13 @@ public class GradientColorSlider extends JSlider implements ComponentListener {
                 tickRect = gradientSliderUi.getTickRect();
                 trackRect = gradientSliderUi.getTrackRect();
             } else {
+                // 参考 BasicSliderUI.paintTicks
+                if (SliderFields.TRACK_RECT == null || SliderFields.TICK_RECT == null) {
+                    return;
+                }
                 try {
-                    // 参考 BasicSliderUI.paintTicks
-                    Field fTrackRect = BasicSliderUI.class.getDeclaredField("trackRect");
-                    Field fTickRect = BasicSliderUI.class.getDeclaredField("tickRect");
-                    fTrackRect.setAccessible(true);
-                    fTickRect.setAccessible(true);
-                    trackRect = (Rectangle) fTrackRect.get(ui);
-                    tickRect = (Rectangle) fTickRect.get(ui);
+                    trackRect = (Rectangle) SliderFields.TRACK_RECT.get(ui);
+                    tickRect = (Rectangle) SliderFields.TICK_RECT.get(ui);
                 } catch (Exception e) {
                     return;
                 }
@@ -128,40 +157,136 @@ public class GradientColorSlider extends JSlider implements ComponentListener {
             // 横向的尺寸，纵向不确定需不需要做矫正
             rect.setBounds(trackRect.x, tickRect.y + 2, trackRect.width, Math.max(tickRect.height, 12));
         }
-        // 计算平分的颜色块
-        Graphics2D gra = (Graphics2D) g;
-        int blocks = bar.length - 1;
-        Color cLeft, cRight;
-        GradientPaint paint;
-        double x = 0, y = 0, width = rect.getWidth(), height = rect.getHeight();
-        gra.translate(rect.x, rect.y);
-        if (slider.getOrientation() == JSlider.HORIZONTAL) {
-            width /= blocks;
-        } else {
-            height /= blocks;
-        }
-        for (int i = 0; i < blocks; i++) {
-            cLeft = bar[i];
-            cRight = bar[i + 1];
-            if (slider.getOrientation() == JSlider.HORIZONTAL) {
-                x = i * width;
-                if (i == blocks - 1) {
-                    width = rect.getWidth() - x;
+        if (rect.width <= 0 || rect.height <= 0) {
+            return;
+        }
+        // 按照设备像素的尺寸绘制，颜色、方向和尺寸不变时直接使用缓存的图像
+        double scale = g instanceof Graphics2D ? ((Graphics2D) g).getTransform().getScaleX() : 1d;
+        BarKey key = new BarKey(bar, model, slider.getOrientation(),
+                Math.max(1, (int) Math.round(rect.width * scale)), Math.max(1, (int) Math.round(rect.height * scale)));
+        if (barImage == null || !key.equals(barKey)) {
+            barImage = renderBar(key);
+            barKey = key;
+        }
+        g.drawImage(barImage, rect.x, rect.y, rect.width, rect.height, null);
+    }
+
+    /**
+     * 绘制渐变条图像
+     *
+     * @param key 颜色、方向和尺寸(设备像素)
+     * @return 图像
+     */
+    private Image renderBar(BarKey key) {
+        int width = key.width, height = key.height;
+        boolean horizontal = key.orientation == JSlider.HORIZONTAL;
+        if (key.model != null) {
+            // 按照颜色模型计算一行(列)像素
+            int length = horizontal ? width : height;
+            int[] stops = new int[key.colors.length];
+            for (int i = 0; i < stops.length; i++) {
+                stops[i] = key.colors[i].getRGB() & 0xffffff;
+            }
+            int[] ramp = Gradient.ramp(key.model, length, stops);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                if (horizontal) {
+                    image.setRGB(0, y, width, 1, ramp, 0, width);
+                } else {
+                    Arrays.fill(row, ramp[y]);
+                    image.setRGB(0, y, width, 1, row, 0, width);
                 }
-                paint = new GradientPaint(new Point2D.Double(x, y), cLeft,
-                        new Point2D.Double((i + 1) * width, y), cRight);
+            }
+            return image;
+        }
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage image = gc != null ? gc.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D gra = image.createGraphics();
+        try {
+            // 计算平分的颜色块
+            Color[] colors = key.colors;
+            int blocks = colors.length - 1;
+            double x = 0, y = 0, blockWidth = width, blockHeight = height;
+            if (horizontal) {
+                blockWidth /= blocks;
             } else {
-                y = i * height;
-                if (i == blocks - 1) {
-                    height = rect.getHeight() - y;
+                blockHeight /= blocks;
+            }
+            for (int i = 0; i < blocks; i++) {
+                GradientPaint paint;
+                if (horizontal) {
+                    x = i * blockWidth;
+                    if (i == blocks - 1) {
+                        blockWidth = width - x;
+                    }
+                    paint = new GradientPaint(new Point2D.Double(x, y), colors[i],
+                            new Point2D.Double((i + 1) * blockWidth, y), colors[i + 1]);
+                } else {
+                    y = i * blockHeight;
+                    if (i == blocks - 1) {
+                        blockHeight = height - y;
+                    }
+                    paint = new GradientPaint(new Point2D.Double(x, y), colors[i],
+                            new Point2D.Double(x, (i + 1) * blockHeight), colors[i + 1]);
                 }
-                paint = new GradientPaint(new Point2D.Double(x, y), cLeft,
-                        new Point2D.Double(x, (i + 1) * height), cRight);
+                gra.setPaint(paint);
+                gra.fill(new Rectangle2D.Double(x, y, blockWidth, blockHeight));
             }
-            gra.setPaint(paint);
-            gra.fill(new Rectangle2D.Double(x, y, width, height));
+        } finally {
+            gra.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * 反射获取的 BasicSliderUI 字段(只获取一次)
+     */
+    private static final class SliderFields {
+        static final Field TRACK_RECT = getField("trackRect");
+        static final Field TICK_RECT = getField("tickRect");
+
+        private static Field getField(String name) {
+            try {
+                Field field = BasicSliderUI.class.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 渐变条图像的缓存键
+     */
+    private static final class BarKey {
+        final Color[] colors;
+        final Gradient.Model model;
+        final int orientation, width, height;
+
+        BarKey(Color[] colors, Gradient.Model model, int orientation, int width, int height) {
+            this.colors = colors;
+            this.model = model;
+            this.orientation = orientation;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BarKey)) return false;
+            BarKey key = (BarKey) o;
+            return orientation == key.orientation && width == key.width && height == key.height
+                    && model == key.model && Arrays.equals(colors, key.colors);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(colors), model, orientation, width, height);
         }
-        gra.translate(-rect.x, -rect.y);
     }
 
     public static void testPermission() throws BootError {
@@ -1,5 +1,6 @@
 package windows.component;
 
+import colorpad.core.Gradient;
 import colorpad.core.model.Hsb;
 import colorpad.extend.IConvertBridge;
 import colorpad.extend.NormalConvertBridge;
@@ -64,10 +65,8 @@ public class HsbPanel extends AbstractColorPanel {
         this.add(sldSaturation);
         this.add(sldBrightness);
         // 绘制颜色
-        sldHue.setColors(new Color(0xFF0000), new Color(0xFFFF00),
-                new Color(0x00FF00), new Color(0x00FFFF),
-                new Color(0x0000FF), new Color(0xFF00FF),
-                new Color(0xFF0000));
+        sldHue.setColors(Gradient.Model.HSB, new Color(0xFF0000), new Color(0x00FF00),
+                new Color(0x0000FF), new Color(0xFF0000));
         // TextField
         txtH = new JTextField(String.valueOf(sldHue.getValue()));
         txtS = new JTextField(String.valueOf(sldSaturation.getValue()));
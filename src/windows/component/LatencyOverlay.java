@@ -0,0 +1,92 @@
+package windows.component;
+
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 显示在窗口左上角的界面延迟调试信息(半透明，不响应鼠标)
+ *
+ * @author Snow
+ */
+public class LatencyOverlay extends JComponent {
+
+    private static final int REFRESH_MILLIS = 500, PADDING = 4;
+
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private List<String> lines = new ArrayList<>();
+
+    private LatencyOverlay() {
+        setOpaque(false);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 10));
+    }
+
+    /**
+     * 在窗口上显示调试信息
+     *
+     * @param pane 窗口的 RootPane
+     */
+    public static void install(JRootPane pane) {
+        LatencyOverlay overlay = new LatencyOverlay();
+        pane.getLayeredPane().add(overlay, JLayeredPane.DRAG_LAYER);
+        overlay.refresh();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        List<String> lines = new ArrayList<>();
+        for (LatencyHistogram histogram : UiMetrics.histograms()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            lines.add(String.format("%-28s p50 %6.2f  p99 %6.2f  max %6.2f ms", histogram.getName(),
+                    toMillis(histogram.getPercentileNanos(50)), toMillis(histogram.getPercentileNanos(99)),
+                    toMillis(histogram.getMaxNanos())));
+        }
+        this.lines = lines;
+        FontMetrics metrics = getFontMetrics(getFont());
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        setBounds(PADDING, PADDING, width + PADDING * 2, metrics.getHeight() * lines.size() + PADDING * 2);
+        repaint();
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        g.setColor(new Color(0, 0, 0, 160));
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setColor(Color.GREEN);
+        g.setFont(getFont());
+        FontMetrics metrics = g.getFontMetrics();
+        int y = PADDING + metrics.getAscent();
+        for (String line : lines) {
+            g.drawString(line, PADDING, y);
+            y += metrics.getHeight();
+        }
+    }
+}
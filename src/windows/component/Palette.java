@@ -2,11 +2,15 @@ package windows.component;
 
 import colorpad.core.model.Rgb;
 import toolkit.ColorTool;
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
 
 import javax.swing.*;
 import java.awt.*;
 
 public class Palette implements Icon {
+    private static final LatencyHistogram paintLatency = UiMetrics.histogram("Palette.paintIcon");
+
     private Color color;
     private JComponent container;
 
@@ -40,8 +44,10 @@ public class Palette implements Icon {
 
     @Override
     public void paintIcon(Component c, Graphics g, int x, int y) {
+        long start = UiMetrics.start();
         g.setColor(color);
         g.fillRect(0, 0, c.getWidth(), c.getHeight());
+        UiMetrics.record(paintLatency, start);
     }
 
     @Override
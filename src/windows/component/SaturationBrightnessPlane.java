@@ -0,0 +1,205 @@
+package windows.component;
+
+import colorpad.core.Basic;
+import colorpad.core.converter.PrimitiveModelConverters;
+
+import javax.swing.*;
+import javax.swing.event.MouseInputAdapter;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 当前色相的 饱和度 - 亮度 平面
+ * 横向为饱和度(0 - 100)，纵向为亮度(上 100，下 0)
+ *
+ * @author Snow
+ */
+public class SaturationBrightnessPlane extends JComponent {
+
+    // 缓存的图像数量上限
+    private static final int CACHE_CAPACITY = 16;
+    // 按 (色相, 宽, 高) 缓存的图像，色相按整数分组
+    private static final Map<Long, BufferedImage> planeCache = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    // 三个 20 位的段中分别为 128、低 12 位的掩码、低 8 位的掩码
+    private static final long LANE_128 = 128L << 40 | 128L << 20 | 128L;
+    private static final long LANE_LOW12 = 0xfffL << 40 | 0xfffL << 20 | 0xfffL;
+    private static final long LANE_LOW8 = 0xffL << 40 | 0xffL << 20 | 0xffL;
+
+    private double hue, saturation, brightness;
+    private int dotDiameter = 10;
+    private BiConsumer<Double, Double> onPick;
+
+    public SaturationBrightnessPlane() {
+        this.setOpaque(true);
+        MouseInputAdapter listener = new MouseInputAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pick(e.getPoint());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pick(e.getPoint());
+            }
+        };
+        this.addMouseListener(listener);
+        this.addMouseMotionListener(listener);
+    }
+
+    /**
+     * 选择颜色时的回调
+     *
+     * @param onPick 分别传入 饱和度、亮度
+     */
+    public void setOnPick(BiConsumer<Double, Double> onPick) {
+        this.onPick = onPick;
+    }
+
+    public void setHue(double hue) {
+        if (Basic.decimalEquals(this.hue, hue)) return;
+        this.hue = hue;
+        repaint();
+    }
+
+    public void setSaturationAndBrightness(double saturation, double brightness) {
+        if (Basic.decimalEquals(this.saturation, saturation) && Basic.decimalEquals(this.brightness, brightness)) {
+            return;
+        }
+        this.saturation = saturation;
+        this.brightness = brightness;
+        repaint();
+    }
+
+    public void setDotDiameter(int dotDiameter) {
+        if (dotDiameter < 1) {
+            throw new IllegalArgumentException("dotDiameter must > 1");
+        }
+        this.dotDiameter = dotDiameter;
+        repaint();
+    }
+
+    private void pick(Point point) {
+        if (onPick == null) {
+            return;
+        }
+        int w = Math.max(getWidth() - 1, 1), h = Math.max(getHeight() - 1, 1);
+        double s = Basic.getFixRange(point.x * 100d / w, 0d, 100d);
+        double b = Basic.getFixRange(100d - point.y * 100d / h, 0d, 100d);
+        onPick.accept(s, b);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth(), height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        // 按照设备像素的尺寸绘制
+        double scale = g instanceof Graphics2D ? ((Graphics2D) g).getTransform().getScaleX() : 1d;
+        BufferedImage image = getPlaneImage(hue, Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale)));
+        g.drawImage(image, 0, 0, width, height, null);
+        // 当前颜色的位置
+        double radius = dotDiameter / 2d;
+        int x = (int) Math.round(saturation / 100d * (width - 1) - radius);
+        int y = (int) Math.round((100d - brightness) / 100d * (height - 1) - radius);
+        g.setColor(Color.BLACK);
+        g.drawOval(x - 1, y - 1, dotDiameter + 1, dotDiameter + 1);
+        g.setColor(Color.WHITE);
+        g.drawOval(x, y, dotDiameter - 1, dotDiameter - 1);
+    }
+
+    /**
+     * 获取缓存的图像，不存在时绘制
+     */
+    private static BufferedImage getPlaneImage(double hue, int width, int height) {
+        int bucket = (int) Math.round(hue) % 360;
+        long key = (long) bucket << 40 | (long) width << 20 | height;
+        BufferedImage image;
+        synchronized (planeCache) {
+            image = planeCache.get(key);
+            if (image != null) {
+                return image;
+            }
+            image = recycle(width, height);
+        }
+        if (image == null) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        renderPlane(bucket, image);
+        synchronized (planeCache) {
+            planeCache.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * 缓存已满时移除最久未使用的图像，尺寸相同时返回它用于重新绘制，改变色相时不必分配新的图像
+     * (图像只在绘制时使用，绘制完成后不再被引用)
+     *
+     * @return 可以重用的图像，没有时返回 null
+     */
+    private static BufferedImage recycle(int width, int height) {
+        if (planeCache.size() < CACHE_CAPACITY) {
+            return null;
+        }
+        Iterator<BufferedImage> iterator = planeCache.values().iterator();
+        BufferedImage eldest = iterator.next();
+        iterator.remove();
+        return eldest.getWidth() == width && eldest.getHeight() == height ? eldest : null;
+    }
+
+    /**
+     * 在图像中绘制 饱和度 - 亮度 平面(整数运算，每行并行计算)
+     * 每个分量为 v * (255 - s * (255 - c) / 255) / 255，其中 c 是色相在饱和度和亮度最大时的分量
+     * 每列的三个分量分别放在 long 的三个 20 位的段中，一次乘法同时计算三个分量，结果与逐个分量调用 div255 相同
+     *
+     * @param hue   色相
+     * @param image 绘制的图像(TYPE_INT_RGB)，覆盖全部像素
+     */
+    static void renderPlane(int hue, BufferedImage image) {
+        int width = image.getWidth(), height = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int pure = PrimitiveModelConverters.hsbToRgb(hue, 100d, 100d);
+        int cr = pure >>> 16 & 255, cg = pure >>> 8 & 255, cb = pure & 255;
+        // 每列(饱和度)亮度最大时的分量
+        long[] column = new long[width];
+        for (int x = 0; x < width; x++) {
+            int s = width > 1 ? x * 255 / (width - 1) : 255;
+            column[x] = (long) (255 - div255(s * (255 - cr))) << 40 | (long) (255 - div255(s * (255 - cg))) << 20
+                    | 255 - div255(s * (255 - cb));
+        }
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int v = height > 1 ? (height - 1 - y) * 255 / (height - 1) : 255;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                // 与 div255 相同的计算，每段的值不超过 2^18，不会进位到相邻的段
+                long value = v * column[x] + LANE_128;
+                value += value >>> 8 & LANE_LOW12;
+                value = value >>> 8 & LANE_LOW8;
+                pixels[offset + x] = (int) (value >>> 24) & 0xff0000 | (int) (value >>> 12) & 0xff00 | (int) value & 0xff;
+            }
+        });
+    }
+
+    /**
+     * 四舍五入计算 value / 255 (value 在 0 - 65535 之间)
+     */
+    private static int div255(int value) {
+        value += 128;
+        return (value + (value >> 8)) >> 8;
+    }
+}
@@ -0,0 +1,45 @@
+package windows.component;
+
+import colorpad.core.model.Hsb;
+import colorpad.extend.IConvertBridge;
+import colorpad.extend.NormalConvertBridge;
+
+/**
+ * 主界面的Panel类 饱和度 - 亮度 平面
+ *
+ * @author Snow
+ */
+public class SbPanel extends AbstractColorPanel {
+    private final SaturationBrightnessPlane plane;
+    private double hue, saturation, brightness;
+
+    public SbPanel() {
+        plane = new SaturationBrightnessPlane();
+        plane.setBounds(8, 6, 324, 136);
+        this.add(plane);
+        plane.setOnPick((s, b) -> {
+            saturation = s;
+            brightness = b;
+            plane.setSaturationAndBrightness(s, b);
+            autoUpdateOutside();
+        });
+    }
+
+    @Override
+    protected IConvertBridge getCurrentColor() {
+        return new NormalConvertBridge(Hsb.from(hue, saturation, brightness));
+    }
+
+    @Override
+    protected void updateCurrentColor(IConvertBridge bridge) {
+        Hsb hsb = bridge.getHsb();
+        saturation = hsb.s();
+        brightness = hsb.b();
+        // 无彩色没有色相，保持原来的色相
+        if (saturation > 0 && brightness > 0) {
+            hue = hsb.h();
+            plane.setHue(hue);
+        }
+        plane.setSaturationAndBrightness(saturation, brightness);
+    }
+}
@@ -1,16 +1,14 @@
 package windows.formula;
 
-import colorpad.core.Formula;
+import colorpad.core.FormulaCache;
 import colorpad.core.FormulaType;
-import colorpad.core.ModelsManager;
 import colorpad.core.model.Hsb;
-import colorpad.core.model.Rgb;
 import fit.simplification.Check;
 import option.Option;
-import toolkit.ColorTool;
 import toolkit.Common;
 import windows.component.ColorWheel;
 import windows.component.GradientColorSlider;
+import windows.component.LatencyOverlay;
 import windows.component.Palette;
 import windows.listener.MouseClickListener;
 
@@ -18,6 +16,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.text.MessageFormat;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 配色窗口
@@ -30,6 +31,17 @@ public class FormulaForm extends JFrame {
     private Hsb currentColor;
     private final FormulaResultBinding[] resultBindings;
     private static FormulaType lastUsedType = FormulaType.Monochromatic;
+    private static final FormulaCache schemeCache = new FormulaCache(256);
+    // 计算配色方案的后台线程(所有窗口共用)
+    private static final ExecutorService computeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "FormulaCompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 最新一次请求的序号，只显示最新请求的结果 (只在 EDT 中修改)
+    private long generation;
+    private Future<?> pendingCompute;
+    private FormulaSnapshot displayed;
 
     private JPanel panRoot;
     private JRadioButton radComplementary;
@@ -53,6 +65,9 @@ public class FormulaForm extends JFrame {
 
     public FormulaForm(Hsb hsb) {
         setContentPane(panRoot);
+        if (Option.LatencyOverlay()) {
+            LatencyOverlay.install(getRootPane());
+        }
         setMinimumSize(new Dimension(598, 500));
         setTitle("配色方案");
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
@@ -99,22 +114,62 @@ public class FormulaForm extends JFrame {
         updateDisplay();
     }
 
+    /**
+     * 在后台计算配色方案，完成后在 EDT 中显示
+     * 还没开始计算的旧请求会被取消，已经开始的旧请求的结果会被丢弃
+     */
     private void updateDisplay() {
-        sldBrightness.setColors(ColorTool.hsbToColor(currentColor.h(), currentColor.s(), 0),
-                ColorTool.hsbToColor(currentColor.h(), currentColor.s(), 100));
-        double[] hues = Formula.GetFormula(currentColor.h(), currentType, null);
-        colorWheel.setSaturationAndHues(currentColor.s(), hues);
+        Hsb hsb = currentColor;
+        FormulaType type = currentType;
+        long request = ++generation;
+        if (pendingCompute != null) {
+            pendingCompute.cancel(false);
+            pendingCompute = null;
+        }
+        if (displayed == null) {
+            // 第一次直接计算，避免窗口显示时内容为空
+            display(FormulaSnapshot.compute(hsb, type, schemeCache));
+            return;
+        }
+        if (displayed.type == type && displayed.base.equals(hsb)) {
+            return;
+        }
+        pendingCompute = computeExecutor.submit(() -> {
+            FormulaSnapshot snapshot = FormulaSnapshot.compute(hsb, type, schemeCache);
+            SwingUtilities.invokeLater(() -> {
+                if (request == generation && isDisplayable()) {
+                    pendingCompute = null;
+                    display(snapshot);
+                }
+            });
+        });
+    }
+
+    private void display(FormulaSnapshot snapshot) {
+        displayed = snapshot;
+        sldBrightness.setColors(snapshot.brightnessFrom, snapshot.brightnessTo);
+        colorWheel.setSaturationAndHues(snapshot.base.s(), snapshot.getHues());
         for (int i = 0; i < resultBindings.length; i++) {
             FormulaResultBinding rb = resultBindings[i];
-            if (i >= hues.length) {
+            if (i >= snapshot.size()) {
                 rb.setVisible(false);
                 continue;
             }
             rb.setVisible(true);
-            rb.setColor(Hsb.from(hues[i], currentColor.s(), currentColor.b()));
+            rb.setColor(snapshot, i);
         }
     }
 
+    @Override
+    public void dispose() {
+        generation++;
+        if (pendingCompute != null) {
+            pendingCompute.cancel(false);
+            pendingCompute = null;
+        }
+        super.dispose();
+    }
+
     static class FormulaResultBinding {
         private JPanel area;
         private SingleColorBinding[] colorBindings;
@@ -130,7 +185,7 @@ public class FormulaForm extends JFrame {
          */
         public static FormulaResultBinding createColorBinding(JPanel panel) {
             Component[] components = panel.getComponents();
-            if (components.length != 3)
+            if (components.length != FormulaSnapshot.SHADES)
                 throw new IllegalArgumentException("Component amount wrong, " +
                         "Don't know how to bind inner panel to outer");
             FormulaResultBinding bind = new FormulaResultBinding();
@@ -149,10 +204,16 @@ public class FormulaForm extends JFrame {
             area.setVisible(visible);
         }
 
-        public void setColor(Hsb hsb) {
-            colorBindings[0].setColor(hsb);
-            colorBindings[1].setColor(Hsb.from(hsb.h(), hsb.s(), 100));
-            colorBindings[2].setColor(Hsb.from(hsb.h(), 100, 100));
+        /**
+         * 显示方案中的一个颜色
+         *
+         * @param snapshot 计算结果
+         * @param index    颜色的序号
+         */
+        public void setColor(FormulaSnapshot snapshot, int index) {
+            for (int i = 0; i < colorBindings.length; i++) {
+                colorBindings[i].setColor(snapshot.getShade(index, i));
+            }
         }
 
     }
@@ -208,21 +269,15 @@ public class FormulaForm extends JFrame {
             }));
         }
 
-        public void setColor(Hsb hsb) {
-            if (hsb.equals(this.hsb)) {
+        public void setColor(FormulaSnapshot.Shade shade) {
+            if (shade.hsb.equals(this.hsb)) {
                 return;
             }
-            this.hsb = hsb;
-            updateLabel();
-        }
-
-        private void updateLabel() {
-            Rgb rgb = ModelsManager.convert(hsb, Rgb.class);
-            hex = rgb.toHex();
+            this.hsb = shade.hsb;
+            hex = shade.hex;
             labHex.setText(Option.HexShowSym() ? "#" + hex : hex);
-            labHsb.setText(MessageFormat.format("HSB({1}{0}{2}{0}{3})", ",",
-                    Math.round(hsb.h()), Math.round(hsb.s()), Math.round(hsb.b())));
-            palette.setColor(rgb);
+            labHsb.setText(shade.hsbText);
+            palette.setColor(shade.rgb);
         }
     }
 }
@@ -0,0 +1,107 @@
+package windows.formula;
+
+import colorpad.core.FormulaCache;
+import colorpad.core.FormulaScheme;
+import colorpad.core.FormulaType;
+import colorpad.core.ModelsManager;
+import colorpad.core.model.Hsb;
+import colorpad.core.model.Rgb;
+import toolkit.ColorTool;
+
+import java.awt.*;
+import java.text.MessageFormat;
+
+/**
+ * 配色窗口需要显示的全部内容(不可变)
+ * 在后台线程中计算，计算完成后交给 EDT 显示，EDT 中只需要设置文本和颜色
+ *
+ * @author Snow
+ */
+final class FormulaSnapshot {
+
+    /**
+     * 方案中每个颜色显示 3 个色块：原色、亮度最大、饱和度和亮度最大
+     */
+    static final int SHADES = 3;
+
+    final Hsb base;
+    final FormulaType type;
+    // 亮度滑块两端的颜色
+    final Color brightnessFrom, brightnessTo;
+    // 色轮上每个颜色的色相
+    private final double[] hues;
+    // [颜色][色块]
+    private final Shade[][] shades;
+
+    private FormulaSnapshot(Hsb base, FormulaType type, double[] hues, Shade[][] shades) {
+        this.base = base;
+        this.type = type;
+        this.hues = hues;
+        this.shades = shades;
+        brightnessFrom = ColorTool.hsbToColor(base.h(), base.s(), 0);
+        brightnessTo = ColorTool.hsbToColor(base.h(), base.s(), 100);
+    }
+
+    /**
+     * 计算配色方案及所有色块(可以在任意线程中调用)
+     *
+     * @param base  基础颜色
+     * @param type  计算方式
+     * @param cache 配色方案的缓存
+     * @return 计算结果
+     */
+    static FormulaSnapshot compute(Hsb base, FormulaType type, FormulaCache cache) {
+        FormulaScheme scheme = cache.get(base, type, null);
+        double[] hues = new double[scheme.size()];
+        Shade[][] shades = new Shade[scheme.size()][];
+        for (int i = 0; i < shades.length; i++) {
+            Hsb hsb = scheme.getHsb(i);
+            hues[i] = hsb.h();
+            Hsb bright = Hsb.from(hsb.h(), hsb.s(), 100);
+            Hsb pure = Hsb.from(hsb.h(), 100, 100);
+            shades[i] = new Shade[]{
+                    new Shade(hsb, scheme.getRgb(i)),
+                    new Shade(bright, ModelsManager.convert(bright, Rgb.class)),
+                    new Shade(pure, ModelsManager.convert(pure, Rgb.class)),
+            };
+        }
+        return new FormulaSnapshot(base, type, hues, shades);
+    }
+
+    /**
+     * 方案中颜色的数量
+     */
+    int size() {
+        return shades.length;
+    }
+
+    /**
+     * 色轮上每个颜色的色相(返回副本)
+     */
+    double[] getHues() {
+        return hues.clone();
+    }
+
+    Shade getShade(int index, int shade) {
+        return shades[index][shade];
+    }
+
+    /**
+     * 一个色块的颜色和文本
+     */
+    static final class Shade {
+        final Hsb hsb;
+        final Rgb rgb;
+        // 不带 # 的 Hex
+        final String hex;
+        final String hsbText;
+
+        private Shade(Hsb hsb, Rgb rgb) {
+            this.hsb = hsb;
+            this.rgb = rgb;
+            hex = rgb.toHex();
+            hsbText = MessageFormat.format("HSB({1}{0}{2}{0}{3})", ",",
+                    Math.round(hsb.h()), Math.round(hsb.s()), Math.round(hsb.b()));
+        }
+    }
+}
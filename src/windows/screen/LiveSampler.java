@@ -0,0 +1,281 @@
+package windows.screen;
+
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 实时取色的采样器
+ * 在单独的线程中按固定频率截取鼠标周围的小块区域，只把最新的结果合并推送到 EDT（每帧最多一次）
+ *
+ * @author Snow
+ */
+public class LiveSampler {
+
+    /**
+     * 默认的采样频率(次/秒)
+     */
+    public static final int DEFAULT_RATE = 30;
+    public static final int MIN_RATE = 1, MAX_RATE = 240;
+    /**
+     * 推送到 EDT 的最小间隔(一帧)
+     */
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    // 每次采样(截图、比较和合并推送)的耗时
+    private static final LatencyHistogram sampleLatency = UiMetrics.histogram("LiveSampler.sample");
+
+    private final int size;
+    private final int rate;
+    private final Consumer<Sample> onSample;
+    private Consumer<RuntimeException> onFailure;
+    private final Robot robot;
+    private ScheduledExecutorService executor;
+    // 连续失败的次数(只在采样线程中访问)
+    private int consecutiveFailures;
+
+    // 最新的采样结果，推送到 EDT 前可能被更新的结果覆盖
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+    private final AtomicBoolean pushPending = new AtomicBoolean();
+    private volatile long lastPushTime;
+    private Sample lastSample;
+
+    // 统计
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile RuntimeException lastFailure;
+
+    /**
+     * 创建采样器
+     *
+     * @param size     采样区域的边长(奇数，鼠标位于中心)
+     * @param rate     采样频率(次/秒)
+     * @param onSample 采样结果的回调(在 EDT 中调用)
+     * @throws AWTException 无法创建 {@link Robot}
+     */
+    public LiveSampler(int size, int rate, Consumer<Sample> onSample) throws AWTException {
+        if (size < 1 || size % 2 == 0)
+            throw new IllegalArgumentException("size must be an odd number");
+        this.size = size;
+        this.rate = Math.max(MIN_RATE, Math.min(MAX_RATE, rate));
+        this.onSample = Objects.requireNonNull(onSample, "onSample cannot be null");
+        robot = new Robot();
+    }
+
+    /**
+     * 开始采样
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "LiveSampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::sample, 0, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 停止采样
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * 设置采样持续失败(约 1 秒)而停止时的回调
+     *
+     * @param onFailure 函数(在 EDT 中调用，参数为最后一次的异常)
+     */
+    public void setOnFailure(Consumer<RuntimeException> onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * 执行一次采样
+     * 异常不能抛出到 {@link ScheduledExecutorService}，否则之后的采样会被静默取消
+     */
+    private void sample() {
+        long start = UiMetrics.start();
+        try {
+            sampleOnce();
+            consecutiveFailures = 0;
+            UiMetrics.record(sampleLatency, start);
+        } catch (RuntimeException e) {
+            // 例如 HeadlessException, SecurityException 或显示器配置改变
+            failures.increment();
+            lastFailure = e;
+            if (++consecutiveFailures >= Math.max(3, rate)) {
+                stop();
+                Consumer<RuntimeException> onFailure = this.onFailure;
+                if (onFailure != null) {
+                    SwingUtilities.invokeLater(() -> onFailure.accept(e));
+                } else {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void sampleOnce() {
+        PointerInfo pointer = MouseInfo.getPointerInfo();
+        if (pointer == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Point location = pointer.getLocation();
+        int half = size / 2;
+        BufferedImage image = robot.createScreenCapture(new Rectangle(location.x - half, location.y - half, size, size));
+        int[] pixels = image.getRGB(0, 0, size, size, null, 0, size);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] &= 0xffffff;
+        }
+        samples.increment();
+        Sample sample = new Sample(location, size, pixels);
+        if (sample.equals(lastSample)) {
+            // 与上一次结果相同时不推送
+            coalesced.increment();
+        } else {
+            lastSample = sample;
+            if (latest.getAndSet(sample) != null) {
+                // 上一个结果还没有被 EDT 取走
+                coalesced.increment();
+            }
+        }
+        if (latest.get() != null && start - lastPushTime >= FRAME_NANOS && pushPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::push);
+        }
+    }
+
+    private void push() {
+        lastPushTime = System.nanoTime();
+        pushPending.set(false);
+        Sample sample = latest.getAndSet(null);
+        if (sample != null) {
+            pushes.increment();
+            onSample.accept(sample);
+        }
+    }
+
+    /**
+     * 采样次数
+     */
+    public long getSampleCount() {
+        return samples.sum();
+    }
+
+    /**
+     * 推送到 EDT 的次数
+     */
+    public long getPushCount() {
+        return pushes.sum();
+    }
+
+    /**
+     * 被合并(没有推送)的采样次数
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 采样失败的次数
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * 最后一次采样失败的异常
+     *
+     * @return 异常，没有失败过时返回 null
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LiveSampler: {rate = %d, samples = %d, pushes = %d, coalesced = %d, failures = %d}",
+                rate, getSampleCount(), getPushCount(), getCoalescedCount(), getFailureCount());
+    }
+
+    /**
+     * 一次采样的结果
+     */
+    public static class Sample {
+        private final Point location;
+        private final int size;
+        private final int[] pixels;
+
+        Sample(Point location, int size, int[] pixels) {
+            this.location = location;
+            this.size = size;
+            this.pixels = pixels;
+        }
+
+        /**
+         * 鼠标在屏幕中的位置
+         */
+        public Point getLocation() {
+            return new Point(location);
+        }
+
+        /**
+         * 采样区域的边长
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * 采样区域中的像素(打包的 RGB，按行存放，不能修改)
+         */
+        int[] getPixels() {
+            return pixels;
+        }
+
+        /**
+         * 鼠标位置的颜色
+         */
+        public Color getColor() {
+            return new Color(pixels[size / 2 * size + size / 2]);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Sample)) return false;
+            Sample sample = (Sample) o;
+            return size == sample.size && location.equals(sample.location)
+                    && Arrays.equals(pixels, sample.pixels);
+        }
+
+        @Override
+        public int hashCode() {
+            return location.hashCode() * 31 + size;
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package windows.screen;
 
+import colorpad.core.RegionStatistics;
 import colorpad.core.model.Hsb;
 import colorpad.extend.IConvertBridge;
+import option.Option;
 import toolkit.ColorTool;
 import toolkit.Common;
+import toolkit.LatencyHistogram;
+import toolkit.UiMetrics;
 import windows.component.ChangeColor;
 
 import javax.swing.*;
 import javax.swing.event.MouseInputListener;
 import java.awt.*;
+import java.awt.event.ActionEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
@@ -23,20 +30,36 @@ import static java.awt.MouseInfo.getPointerInfo;
 
 public class PickColorForm extends JFrame implements MouseInputListener {
 
+    private static final LatencyHistogram paintLatency = UiMetrics.histogram("PickColorForm.paint");
+
     // 标签
-    private JLabel labRgb, labHsb, labColor;
+    private JLabel labRgb, labHsb, labColor, labSample;
     // 面板
     private JPanel panRoot, panInfo;
     // 颜色对象 用于返回给调用的类
     private Color color;
     // 图片对象  用于画背景
-    private final Image backgroundImage;
+    private final BufferedImage backgroundImage;
+    // 背景图像的像素(打包的 RGB)，用于查询鼠标位置的颜色
+    private final int[] pixels;
+    private final int imageWidth, imageHeight;
+    // 放大镜
+    private Magnifier magnifier;
+    // 实时取色的采样器(只在实时取色时使用)
+    private LiveSampler sampler;
+    private LiveSampler.Sample lastSample;
+    // 取色范围(奇数，1 为单个像素) 和 多个像素时的计算方式
+    private int sampleSize;
+    private Option.SampleMethod sampleMethod;
+    // 背景图像的积分图，第一次计算平均值时建立
+    private RegionStatistics statistics;
+    private Point lastPoint;
     private ChangeColor onChangeColor;
     private Runnable onDispose;
 
     /**
      * static方法
-     * 获取颜色值 返回一个颜色对象
+     * 获取颜色值 返回一个颜色对象（每次调用都会实时读取屏幕，比较慢，取色窗口中使用截图的像素）
      *
      * @return Color
      */
@@ -85,32 +108,138 @@ public class PickColorForm extends JFrame implements MouseInputListener {
     /**
      * 通过传入的图片对象来创建窗体
      *
-     * @param backgroundImage 要显示的图像
+     * @param backgroundImage 要显示的图像(为空时为实时取色)
      */
-    PickColorForm(Image backgroundImage) {
+    PickColorForm(BufferedImage backgroundImage) {
         setTitle("从屏幕取色");
         this.backgroundImage = backgroundImage;
+        if (backgroundImage != null) {
+            imageWidth = backgroundImage.getWidth();
+            imageHeight = backgroundImage.getHeight();
+            pixels = getPixels(backgroundImage);
+        } else {
+            imageWidth = imageHeight = 0;
+            pixels = null;
+        }
+        sampleSize = fixSampleSize(Option.PickSampleSize());
+        sampleMethod = Option.PickSampleMethod();
         initFrame();
     }
 
+    /**
+     * 获取图像的像素，尽量直接使用图像的数据，避免复制
+     *
+     * @param image 图像
+     * @return 像素(打包的 RGB，按行存放)
+     */
+    private static int[] getPixels(BufferedImage image) {
+        int width = image.getWidth(), height = image.getHeight();
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getSampleModel() instanceof SinglePixelPackedSampleModel
+                && ((SinglePixelPackedSampleModel) image.getSampleModel()).getScanlineStride() == width
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0) {
+            DataBufferInt buffer = (DataBufferInt) image.getRaster().getDataBuffer();
+            if (buffer.getNumBanks() == 1 && buffer.getOffset() == 0) {
+                return buffer.getData();
+            }
+        }
+        return image.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    /**
+     * 按照取色范围和计算方式获取颜色
+     *
+     * @param source 像素(打包的 RGB，按行存放)
+     * @param width  宽度
+     * @param height 高度
+     * @param x      中心的横坐标
+     * @param y      中心的纵坐标
+     * @return 打包的 RGB
+     */
+    private int samplePixel(int[] source, int width, int height, int x, int y) {
+        if (sampleSize <= 1) {
+            return source[y * width + x] & 0xffffff;
+        }
+        int half = sampleSize / 2;
+        if (sampleMethod == Option.SampleMethod.MEDIAN) {
+            return RegionStatistics.median(source, width, height, x - half, y - half, sampleSize, sampleSize);
+        }
+        if (source != pixels) {
+            // 实时取色的区域很小，直接计算
+            return RegionStatistics.average(source, width, height, x - half, y - half, sampleSize, sampleSize);
+        }
+        if (statistics == null) {
+            statistics = RegionStatistics.from(pixels, imageWidth, imageHeight);
+        }
+        return statistics.average(x - half, y - half, sampleSize, sampleSize);
+    }
+
+    private static int fixSampleSize(int size) {
+        size = Math.max(1, Math.min(Magnifier.SIZE, size));
+        return size % 2 == 0 ? size - 1 : size;
+    }
+
+    /**
+     * 修改取色范围或计算方式，并刷新显示
+     *
+     * @param size   取色范围
+     * @param method 计算方式
+     */
+    private void setSampling(int size, Option.SampleMethod method) {
+        sampleSize = fixSampleSize(size);
+        sampleMethod = method;
+        Option.PickSampleSize(sampleSize);
+        Option.PickSampleMethod(sampleMethod);
+        updateSampleLabel();
+        if (lastSample != null) {
+            onSample(lastSample);
+        } else if (lastPoint != null) {
+            magnifier.setPixels(pixels, imageWidth, imageHeight, lastPoint.x, lastPoint.y);
+            showColor(new Color(samplePixel(pixels, imageWidth, imageHeight, lastPoint.x, lastPoint.y)));
+        }
+    }
+
+    private void updateSampleLabel() {
+        if (sampleSize <= 1) {
+            labSample.setText("单点 (滚轮/+-/M 调整)");
+        } else {
+            labSample.setText(String.format("%d×%d %s (滚轮/+-/M 调整)", sampleSize, sampleSize,
+                    sampleMethod == Option.SampleMethod.MEDIAN ? "中值" : "平均值"));
+        }
+        magnifier.repaint();
+    }
+
+    /**
+     * 将面板坐标转换为截图中的坐标(截图可能被缩放显示)
+     */
+    private Point toImagePoint(int x, int y) {
+        int w = Math.max(panRoot.getWidth(), 1), h = Math.max(panRoot.getHeight(), 1);
+        return new Point(Math.min(Math.max((int) ((long) x * imageWidth / w), 0), imageWidth - 1),
+                Math.min(Math.max((int) ((long) y * imageHeight / h), 0), imageHeight - 1));
+    }
+
     /**
      * 初始化窗口布局内容
      */
     private void initFrame() {
-        panRoot = new PicturePanel();
-        panRoot.setOpaque(true);
-        this.getContentPane().add(panRoot);
+        boolean live = backgroundImage == null;
         this.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-        panRoot.setLayout(null);
         panInfo = new JPanel();
         // 设置显示颜色信息的浮动标签
         labRgb = new JLabel();
         labColor = new JLabel();
         labHsb = new JLabel();
+        labSample = new JLabel();
         // 提示鼠标操作
-        JLabel labNotice = new JLabel("左键取色 右键退出");
+        JLabel labNotice = new JLabel(live ? "空格/回车取色 Esc退出" : "左键取色 右键退出");
+        magnifier = new Magnifier();
         panInfo.setLayout(null);
+        panInfo.add(magnifier);
         panInfo.add(labNotice);
+        panInfo.add(labSample);
         panInfo.add(labRgb);
         panInfo.add(labHsb);
         panInfo.add(labColor);
@@ -122,8 +251,10 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         labRgb.setFont(new Font(fontName, font.getStyle(), font.getSize() + 4));
         labHsb.setFont(labRgb.getFont());
         labNotice.setFont(new Font(fontName, font.getStyle(), font.getSize() - 2));
+        labSample.setFont(labNotice.getFont());
         // 大小设置
         labNotice.setSize(160, 10);
+        labSample.setSize(labNotice.getSize());
         labRgb.setSize(160, 20);
         labHsb.setSize(labRgb.getSize());
         labColor.setSize(labRgb.getWidth(), 30);
@@ -131,6 +262,8 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         labRgb.setHorizontalAlignment(JLabel.CENTER);
         labHsb.setHorizontalAlignment(JLabel.CENTER);
         labNotice.setHorizontalAlignment(JLabel.CENTER);
+        labSample.setHorizontalAlignment(JLabel.CENTER);
+        updateSampleLabel();
         labColor.setBorder(BorderFactory.createLineBorder(new Color(0x535353), 2));
         int infoW = 0, infoH = 0;
         int gap = 4, margin = 2;
@@ -144,12 +277,24 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         infoH -= panInfo.getComponentCount() > 0 ? gap : 0;
         infoH += margin;
         infoW += 2 * margin;
-        // 设置位置和宽高
-        panInfo.setBounds(-infoW - 1, 0, infoW, infoH);
-        // 添加到窗体
-        panRoot.add(panInfo);
-        panRoot.addMouseListener(this);
-        panRoot.addMouseMotionListener(this);
+        magnifier.setLocation((infoW - magnifier.getWidth()) / 2, magnifier.getY());
+        if (live) {
+            // 实时取色时窗口只显示颜色信息，跟随鼠标移动
+            panInfo.setPreferredSize(new Dimension(infoW, infoH));
+            this.getContentPane().add(panInfo);
+        } else {
+            panRoot = new PicturePanel();
+            panRoot.setOpaque(true);
+            this.getContentPane().add(panRoot);
+            panRoot.setLayout(null);
+            // 设置位置和宽高
+            panInfo.setBounds(-infoW - 1, 0, infoW, infoH);
+            // 添加到窗体
+            panRoot.add(panInfo);
+            panRoot.addMouseListener(this);
+            panRoot.addMouseMotionListener(this);
+            panRoot.addMouseWheelListener(e -> setSampling(sampleSize - 2 * e.getWheelRotation(), sampleMethod));
+        }
         /*  鼠标拖动和移动的监听器*/
         // 按键监听
         this.addKeyListener(new KeyAdapter() {
@@ -165,15 +310,78 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         String keyPress = "keyPress";
         this.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
                 .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), keyPress);
+        if (live) {
+            initLiveKeys();
+        }
+        initSamplingKeys();
     }
 
-    @Override
-    public void mouseDragged(MouseEvent e) {
+    /**
+     * 调整取色范围和计算方式的按键：+ - 调整范围，M 切换平均值和中值
+     */
+    private void initSamplingKeys() {
+        String larger = "larger", smaller = "smaller", method = "method";
+        InputMap inputMap = this.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, 0), larger);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ADD, 0), larger);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, 0), smaller);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT, 0), smaller);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_M, 0), method);
+        ActionMap actionMap = this.getRootPane().getActionMap();
+        actionMap.put(larger, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setSampling(sampleSize + 2, sampleMethod);
+            }
+        });
+        actionMap.put(smaller, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setSampling(sampleSize - 2, sampleMethod);
+            }
+        });
+        actionMap.put(method, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setSampling(sampleSize, sampleMethod == Option.SampleMethod.MEDIAN
+                        ? Option.SampleMethod.AVERAGE : Option.SampleMethod.MEDIAN);
+            }
+        });
     }
 
-    @Override
-    public void mouseMoved(MouseEvent e) {
-        Color color = GetPixel();
+    /**
+     * 实时取色时的按键：空格和回车取色，Esc 退出
+     */
+    private void initLiveKeys() {
+        String pick = "pick", exit = "exit";
+        InputMap inputMap = this.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), pick);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), pick);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), exit);
+        ActionMap actionMap = this.getRootPane().getActionMap();
+        actionMap.put(pick, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (color != null && onChangeColor != null) {
+                    onChangeColor.change(color);
+                }
+                dispose();
+            }
+        });
+        actionMap.put(exit, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                dispose();
+            }
+        });
+    }
+
+    /**
+     * 显示颜色信息
+     *
+     * @param color 颜色
+     */
+    private void showColor(Color color) {
         labColor.setBackground(color);
         IConvertBridge bridge = ColorTool.toBridge(color);
         final String separator = ",";
@@ -181,6 +389,50 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         Hsb hsb = bridge.getHsb();
         labHsb.setText(String.format("HSB(%d,%d,%d)", Math.round(hsb.h()), Math.round(hsb.s()), Math.round(hsb.b())));
         this.color = color;
+    }
+
+    /**
+     * 实时取色的采样结果(在 EDT 中调用)
+     */
+    private void onSample(LiveSampler.Sample sample) {
+        lastSample = sample;
+        int size = sample.getSize();
+        magnifier.setPixels(sample.getPixels(), size, size, size / 2, size / 2);
+        showColor(new Color(samplePixel(sample.getPixels(), size, size, size / 2, size / 2)));
+        // 窗口跟随鼠标，靠近屏幕边缘时显示在另一侧
+        final int offset = 16;
+        Point mouse = sample.getLocation();
+        Rectangle screen = getScreenBounds(mouse);
+        int x = mouse.x + offset, y = mouse.y + offset;
+        if (x + getWidth() > screen.x + screen.width) {
+            x = mouse.x - offset - getWidth();
+        }
+        if (y + getHeight() > screen.y + screen.height) {
+            y = mouse.y - offset - getHeight();
+        }
+        setLocation(x, y);
+    }
+
+    private static Rectangle getScreenBounds(Point point) {
+        for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+            Rectangle bounds = device.getDefaultConfiguration().getBounds();
+            if (bounds.contains(point)) {
+                return bounds;
+            }
+        }
+        return new Rectangle(Toolkit.getDefaultToolkit().getScreenSize());
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        Point point = toImagePoint(e.getX(), e.getY());
+        lastPoint = point;
+        magnifier.setPixels(pixels, imageWidth, imageHeight, point.x, point.y);
+        showColor(new Color(samplePixel(pixels, imageWidth, imageHeight, point.x, point.y)));
         final int offset = 16;
         // 当鼠标在右边 并且label无法正常显示
         int mouseX = e.getX();
@@ -198,6 +450,9 @@ public class PickColorForm extends JFrame implements MouseInputListener {
     @Override
     public void dispose() {
         try {
+            if (sampler != null) {
+                sampler.stop();
+            }
             super.dispose();
         } finally {
             if (onDispose != null) {
@@ -213,7 +468,66 @@ public class PickColorForm extends JFrame implements MouseInputListener {
     class PicturePanel extends JPanel {
         @Override
         protected void paintComponent(Graphics g) {
+            long start = UiMetrics.start();
             g.drawImage(backgroundImage, 0, 0, this.getWidth(), this.getHeight(), null);
+            UiMetrics.record(paintLatency, start);
+        }
+    }
+
+    /**
+     * 放大镜 显示鼠标周围的像素（从截图中读取）
+     */
+    class Magnifier extends JComponent {
+        // 显示的像素数量(奇数) 和 放大倍数
+        private static final int SIZE = 15, ZOOM = 8;
+        private final BufferedImage tile = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        private final int[] tilePixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+
+        Magnifier() {
+            setSize(SIZE * ZOOM + 2, SIZE * ZOOM + 2);
+        }
+
+        /**
+         * 设置显示的像素
+         *
+         * @param source 像素(打包的 RGB，按行存放)
+         * @param width  宽度
+         * @param height 高度
+         * @param x      中心的横坐标
+         * @param y      中心的纵坐标
+         */
+        void setPixels(int[] source, int width, int height, int x, int y) {
+            int half = SIZE / 2;
+            for (int dy = 0; dy < SIZE; dy++) {
+                int py = y - half + dy;
+                for (int dx = 0; dx < SIZE; dx++) {
+                    int px = x - half + dx;
+                    boolean inside = px >= 0 && py >= 0 && px < width && py < height;
+                    tilePixels[dy * SIZE + dx] = inside ? source[py * width + px] & 0xffffff : 0;
+                }
+            }
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int size = SIZE * ZOOM;
+            // 默认使用最近邻插值放大
+            g.drawImage(tile, 1, 1, size, size, null);
+            g.setColor(new Color(0x535353));
+            g.drawRect(0, 0, size + 1, size + 1);
+            // 标记中心像素
+            int center = SIZE / 2 * ZOOM + 1;
+            g.setColor(Color.WHITE);
+            g.drawRect(center - 1, center - 1, ZOOM + 1, ZOOM + 1);
+            g.setColor(Color.BLACK);
+            g.drawRect(center - 2, center - 2, ZOOM + 3, ZOOM + 3);
+            // 标记取色范围
+            if (sampleSize > 1) {
+                int start = (SIZE - sampleSize) / 2 * ZOOM + 1;
+                g.setColor(Color.WHITE);
+                g.drawRect(start, start, sampleSize * ZOOM - 1, sampleSize * ZOOM - 1);
+            }
         }
     }
 
@@ -250,12 +564,12 @@ public class PickColorForm extends JFrame implements MouseInputListener {
      * 屏幕截图
      */
     public static PickColorForm createScreenCapture() {
-        ImageIcon image = getScreenImage();
+        BufferedImage image = getScreenImage();
         if (image == null) {
             throw new UnsupportedOperationException("无法获取屏幕图像");
         }
         // 将图像实例赋给backgroundImage
-        PickColorForm form = new PickColorForm(image.getImage());
+        PickColorForm form = new PickColorForm(image);
         Common.OsType os = Common.getOs();
         if (os == Common.OsType.WINDOWS) {
             Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
@@ -276,7 +590,34 @@ public class PickColorForm extends JFrame implements MouseInputListener {
         return form;
     }
 
-    private static ImageIcon getScreenImage() {
+    /**
+     * 实时取色（按一定频率读取鼠标周围的屏幕区域）
+     *
+     * @param rate 采样频率(次/秒)
+     */
+    public static PickColorForm createLiveCapture(int rate) {
+        PickColorForm form = new PickColorForm(null);
+        try {
+            form.sampler = new LiveSampler(Magnifier.SIZE, rate, form::onSample);
+        } catch (AWTException e) {
+            e.printStackTrace();
+            throw new UnsupportedOperationException("无法读取屏幕图像");
+        }
+        // 采样持续失败时关闭窗口并提示
+        form.sampler.setOnFailure(e -> {
+            e.printStackTrace();
+            form.dispose();
+            Common.msgShow("错误", "实时取色失败，无法读取屏幕图像: " + e.getMessage());
+        });
+        form.setUndecorated(true);
+        form.setAlwaysOnTop(true);
+        form.pack();
+        form.setVisible(true);
+        form.sampler.start();
+        return form;
+    }
+
+    private static BufferedImage getScreenImage() {
         // 得到屏幕尺寸信息
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         // 创建一个Rectangle(区域)
@@ -289,9 +630,7 @@ public class PickColorForm extends JFrame implements MouseInputListener {
             return null;
         }
         // 截图 并缓存在程序的内存中
-        BufferedImage screen = robot.createScreenCapture(screenRectangle);
-        // 获得背景图像
-        return new ImageIcon(screen);
+        return robot.createScreenCapture(screenRectangle);
     }
 
     @Deprecated